@@ -1,20 +1,32 @@
 package palantier;
 
+import palantier.service.TaskStore;
 import palantier.service.UserManager;
 import palantier.ui.LoginForm;
 
 import javax.swing.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * Main — Entry point for the Palantier application.
  *
  * Initializes the UserManager (which loads any saved users from file)
  * and opens the LoginForm as the starting window.
+ *
+ * Also runs headless board migration commands:
+ *   export &lt;file.jsonl|file.csv&gt;
+ *   import &lt;file.jsonl|file.csv&gt; [batchSize]
  */
 public class Main {
 
     public static void main(String[] args) {
 
+        if (args.length > 0 && ("export".equals(args[0]) || "import".equals(args[0]))) {
+            System.exit(runTransferCommand(args));
+            return;
+        }
+
         // Set the system look-and-feel for a native appearance
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -36,4 +48,36 @@ public class Main {
             }
         });
     }
+
+    /**
+     * Streams tasks between the database and a JSON Lines / CSV file.
+     *
+     * @return the process exit code
+     */
+    private static int runTransferCommand(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: " + args[0] + " <file.jsonl|file.csv>"
+                    + ("import".equals(args[0]) ? " [batchSize]" : ""));
+            return 2;
+        }
+        Path path = Paths.get(args[1]);
+        TaskStore.Format format = TaskStore.Format.fromPath(path);
+        TaskStore store = new TaskStore();
+        long start = System.nanoTime();
+        try {
+            long count;
+            if ("export".equals(args[0])) {
+                count = store.exportTasks(path, format);
+            } else {
+                int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : TaskStore.DEFAULT_IMPORT_BATCH_SIZE;
+                count = store.importTasks(path, format, batchSize);
+            }
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+            System.out.println(args[0] + "ed " + count + " tasks (" + format + ") in " + elapsedMs + " ms");
+            return 0;
+        } catch (Exception e) {
+            System.err.println(args[0] + " failed: " + e.getMessage());
+            return 1;
+        }
+    }
 }
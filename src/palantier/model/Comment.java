@@ -37,6 +37,17 @@ public class Comment implements Serializable {
         this.timestamp = new Date();
     }
 
+    /**
+     * Rehydrates a stored Comment with its original id and timestamp.
+     */
+    public Comment(String id, String authorName, String authorEmail, String text, Date timestamp) {
+        this.id = id;
+        this.authorName = authorName;
+        this.authorEmail = authorEmail;
+        this.text = text;
+        this.timestamp = timestamp;
+    }
+
     // ── Getters ──────────────────────────────────────────────────────────
 
     public String getId() {
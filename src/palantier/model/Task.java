@@ -43,7 +43,11 @@ public class Task implements Serializable {
     private String createdByName;   // display name of the creator
     private Date createdDate;
     private Date dueDate;           // optional due date
+    private Date completedDate;     // when the task last moved to Done (null otherwise)
     private ArrayList<Comment> comments;
+    private long version;           // bumped on every persisted change
+    private Date updatedAt;         // time of the last persisted change (sync watermark)
+    private String revision;        // unique per persisted change; tells apart two writes of the same version
 
     /**
      * Creates a new Task with an auto-generated UUID and current date.
@@ -70,6 +74,23 @@ public class Task implements Serializable {
         this.assigneeName = null;
     }
 
+    /**
+     * Rehydrates a stored Task with its original id and creation date.
+     * Used by the persistence layer so loading does not generate throwaway UUIDs.
+     */
+    public Task(String id, String title, String description, String status, String priority,
+                String createdByEmail, String createdByName, Date createdDate) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.status = status;
+        this.priority = priority;
+        this.createdByEmail = createdByEmail;
+        this.createdByName = createdByName;
+        this.createdDate = createdDate;
+        this.comments = new ArrayList<>();
+    }
+
     // ── Getters ──────────────────────────────────────────────────────────
 
     public String getId() {
@@ -116,6 +137,10 @@ public class Task implements Serializable {
         return dueDate;
     }
 
+    public Date getCompletedDate() {
+        return completedDate;
+    }
+
     public String getFormattedCreatedDate() {
         SimpleDateFormat sdf = new SimpleDateFormat("dd MMM yyyy");
         return sdf.format(createdDate);
@@ -129,6 +154,18 @@ public class Task implements Serializable {
         return sdf.format(dueDate);
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public String getRevision() {
+        return revision;
+    }
+
     public ArrayList<Comment> getComments() {
         return comments;
     }
@@ -151,7 +188,16 @@ public class Task implements Serializable {
         this.description = description;
     }
 
+    /**
+     * Sets the status, stamping the completion date when the task moves to Done
+     * and clearing it when the task is reopened.
+     */
     public void setStatus(String status) {
+        if (STATUS_DONE.equals(status) && !STATUS_DONE.equals(this.status)) {
+            this.completedDate = new Date();
+        } else if (!STATUS_DONE.equals(status)) {
+            this.completedDate = null;
+        }
         this.status = status;
     }
 
@@ -167,6 +213,33 @@ public class Task implements Serializable {
         this.createdDate = createdDate;
     }
 
+    public void setCompletedDate(Date completedDate) {
+        this.completedDate = completedDate;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public void setRevision(String revision) {
+        this.revision = revision;
+    }
+
+    /**
+     * Bumps the version and update timestamp ahead of a persisted change,
+     * and gives the change a fresh revision id. Two clients editing the same
+     * version both produce version + 1, but never the same revision.
+     */
+    public void markModified() {
+        this.version++;
+        this.updatedAt = new Date();
+        this.revision = UUID.randomUUID().toString();
+    }
+
     /**
      * Assigns this task to a team member.
      *
@@ -181,16 +254,40 @@ public class Task implements Serializable {
     // ── Comments ─────────────────────────────────────────────────────────
 
     /**
-     * Adds a comment to this task.
+     * Adds a comment to this task, keeping the list in timestamp order
+     * (oldest first) so readers never have to sort it.
      *
      * @param comment the Comment object to add
      */
     public void addComment(Comment comment) {
-        comments.add(comment);
+        // New comments are almost always the newest, so scan back from the end
+        int index = comments.size();
+        while (index > 0 && comments.get(index - 1).getTimestamp().after(comment.getTimestamp())) {
+            index--;
+        }
+        comments.add(index, comment);
     }
 
     // ── Helpers ──────────────────────────────────────────────────────────
 
+    /**
+     * Returns a copy that can be changed without affecting this task.
+     * The comment list is copied; comments themselves never change once added.
+     */
+    public Task copy() {
+        Task copy = new Task(id, title, description, status, priority,
+                createdByEmail, createdByName, createdDate);
+        copy.assigneeEmail = assigneeEmail;
+        copy.assigneeName = assigneeName;
+        copy.dueDate = dueDate;
+        copy.completedDate = completedDate;
+        copy.comments = new ArrayList<>(comments);
+        copy.version = version;
+        copy.updatedAt = updatedAt;
+        copy.revision = revision;
+        return copy;
+    }
+
     /**
      * Returns whether this task is currently assigned to someone.
      */
@@ -0,0 +1,277 @@
+package palantier.service;
+
+import palantier.model.Task;
+import palantier.model.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * ChatContextBuilder — Builds the chatbot's system prompt within a token budget.
+ *
+ * Instead of listing every task on the board, the prompt carries aggregate
+ * counts (per status, per priority, overdue, assigned to the user) and then
+ * only the tasks most worth mentioning for this question, best first, until
+ * the budget is used up. Tasks are ranked by:
+ *
+ * - relevance: words of the prompt found in the title, description or assignee
+ * - urgency: overdue, or due within the next few days
+ * - priority: High before Medium before Low
+ * - ownership: tasks assigned to the asking user
+ *
+ * Done tasks are only listed when the prompt matches them or asks about
+ * completed work. Tokens are estimated at four characters each, which is
+ * close enough for budgeting an English prompt.
+ *
+ * When the model can look tasks up through ChatTools, buildSummaryPrompt()
+ * sends only the aggregate counts and leaves the details to tool calls.
+ */
+public class ChatContextBuilder {
+
+    public static final int DEFAULT_TOKEN_BUDGET = 1500;
+    public static final int DEFAULT_MAX_TASKS = 40;
+
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final long DAY_MS = 24L * 60L * 60L * 1000L;
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "the", "and", "for", "are", "what", "which", "who", "how", "should", "with", "that", "this",
+            "task", "tasks", "have", "has", "any", "all", "about", "from", "there", "can", "you", "please"));
+    private static final Set<String> DONE_WORDS = new HashSet<>(Arrays.asList(
+            "done", "completed", "complete", "finished", "closed"));
+
+    private final int tokenBudget;
+    private final int maxTasks;
+
+    public ChatContextBuilder() {
+        this(DEFAULT_TOKEN_BUDGET, DEFAULT_MAX_TASKS);
+    }
+
+    /**
+     * @param tokenBudget approximate upper bound on the prompt's size in tokens
+     * @param maxTasks    most tasks ever listed individually
+     */
+    public ChatContextBuilder(int tokenBudget, int maxTasks) {
+        this.tokenBudget = tokenBudget;
+        this.maxTasks = maxTasks;
+    }
+
+    /**
+     * Builds the system prompt for one question.
+     */
+    public String build(String prompt, User currentUser, TaskManager taskManager) {
+        ArrayList<Task> tasks = taskManager.getAllTasks();
+        String email = currentUser.getEmail();
+        Set<String> terms = extractTerms(prompt);
+        boolean askingAboutDone = false;
+        for (String term : terms) {
+            if (DONE_WORDS.contains(term)) {
+                askingAboutDone = true;
+                break;
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("You are a helpful task management assistant for the user '").append(currentUser.getFullName())
+                .append("'.\n");
+        appendSummary(sb, tasks, email);
+
+        // Keep the best maxTasks candidates (min-heap on score)
+        long now = System.currentTimeMillis();
+        PriorityQueue<ScoredTask> best = new PriorityQueue<>(Comparator.comparingDouble(s -> s.score));
+        for (Task task : tasks) {
+            int matches = countMatches(task, terms);
+            if (Task.STATUS_DONE.equals(task.getStatus()) && matches == 0 && !askingAboutDone) {
+                continue;
+            }
+            best.add(new ScoredTask(task, score(task, matches, email, now)));
+            if (best.size() > maxTasks) {
+                best.poll();
+            }
+        }
+        ArrayList<ScoredTask> ranked = new ArrayList<>(best);
+        ranked.sort(Comparator.comparingDouble((ScoredTask s) -> s.score).reversed());
+
+        String closing = "\nPlease answer the user's questions based on this data. Be concise, friendly, and helpful. "
+                + "If asked what to do first, recommend based on Priority (High first) and Due Dates (earliest first). "
+                + "The task list may be partial; use the summary counts for totals.";
+        int budgetChars = tokenBudget * CHARS_PER_TOKEN - closing.length() - prompt.length();
+
+        sb.append("\nMost relevant tasks:\n");
+        int listed = 0;
+        for (ScoredTask scored : ranked) {
+            String line = describe(scored.task, email);
+            if (sb.length() + line.length() > budgetChars) {
+                break;
+            }
+            sb.append(line);
+            listed++;
+        }
+        if (listed == 0) {
+            sb.append("- None\n");
+        }
+        int candidates = tasks.size();
+        if (listed < candidates) {
+            sb.append("(").append(candidates - listed).append(" other tasks not listed.)\n");
+        }
+
+        sb.append(closing);
+        return sb.toString();
+    }
+
+    /**
+     * Builds a system prompt with only the board summary, for models that
+     * fetch task details through ChatTools. Its size does not depend on the
+     * number of tasks.
+     */
+    public String buildSummaryPrompt(User currentUser, TaskManager taskManager) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("You are a helpful task management assistant for the user '").append(currentUser.getFullName())
+                .append("' (").append(currentUser.getEmail()).append(").\n");
+        appendSummary(sb, taskManager.getAllTasks(), currentUser.getEmail());
+        sb.append("\nUse the provided functions to look up tasks; do not guess task names, dates or assignees. "
+                + "Be concise, friendly, and helpful. "
+                + "If asked what to do first, recommend based on Priority (High first) and Due Dates (earliest first).");
+        return sb.toString();
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ══════════════════════════════════════════════════════════════════════
+
+    private void appendSummary(StringBuilder sb, ArrayList<Task> tasks, String email) {
+        Map<String, Integer> byStatus = new LinkedHashMap<>();
+        for (String status : Task.ALL_STATUSES) {
+            byStatus.put(status, 0);
+        }
+        Map<String, Integer> openByPriority = new LinkedHashMap<>();
+        openByPriority.put(Task.PRIORITY_HIGH, 0);
+        openByPriority.put(Task.PRIORITY_MEDIUM, 0);
+        openByPriority.put(Task.PRIORITY_LOW, 0);
+        int overdue = 0;
+        int mine = 0;
+        int mineOpen = 0;
+        int unassigned = 0;
+
+        for (Task task : tasks) {
+            byStatus.merge(task.getStatus(), 1, Integer::sum);
+            boolean open = !Task.STATUS_DONE.equals(task.getStatus());
+            if (open) {
+                openByPriority.merge(task.getPriority(), 1, Integer::sum);
+            }
+            if (task.isOverdue()) {
+                overdue++;
+            }
+            if (!task.isAssigned()) {
+                unassigned++;
+            } else if (task.getAssigneeEmail().equals(email)) {
+                mine++;
+                if (open) {
+                    mineOpen++;
+                }
+            }
+        }
+
+        sb.append("Board summary: ").append(tasks.size()).append(" tasks");
+        for (Map.Entry<String, Integer> entry : byStatus.entrySet()) {
+            sb.append(", ").append(entry.getValue()).append(' ').append(entry.getKey());
+        }
+        sb.append(".\nOpen tasks by priority:");
+        for (Map.Entry<String, Integer> entry : openByPriority.entrySet()) {
+            sb.append(' ').append(entry.getKey()).append(' ').append(entry.getValue()).append(',');
+        }
+        sb.setLength(sb.length() - 1);
+        sb.append(".\nOverdue: ").append(overdue)
+                .append(". Unassigned: ").append(unassigned)
+                .append(". Assigned to me: ").append(mine).append(" (").append(mineOpen).append(" open).\n");
+    }
+
+    private static double score(Task task, int matches, String email, long now) {
+        double score = matches * 10.0;
+
+        if (task.isOverdue()) {
+            score += 8;
+        } else if (task.getDueDate() != null && !Task.STATUS_DONE.equals(task.getStatus())) {
+            long days = (task.getDueDate().getTime() - now) / DAY_MS;
+            if (days <= 7) {
+                score += 7 - days;     // due today scores highest
+            }
+        }
+
+        if (Task.PRIORITY_HIGH.equals(task.getPriority())) {
+            score += 5;
+        } else if (Task.PRIORITY_MEDIUM.equals(task.getPriority())) {
+            score += 2;
+        }
+
+        if (email.equals(task.getAssigneeEmail())) {
+            score += 4;
+        }
+        if (Task.STATUS_DONE.equals(task.getStatus())) {
+            score -= 6;
+        } else if (Task.STATUS_IN_PROGRESS.equals(task.getStatus())) {
+            score += 1;
+        }
+        return score;
+    }
+
+    private static int countMatches(Task task, Set<String> terms) {
+        if (terms.isEmpty()) {
+            return 0;
+        }
+        String description = task.getDescription() != null ? task.getDescription() : "";
+        String haystack = (task.getTitle() + " " + description + " "
+                + (task.isAssigned() ? task.getAssigneeName() : "")).toLowerCase(Locale.ROOT);
+        int matches = 0;
+        for (String term : terms) {
+            if (haystack.contains(term)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static Set<String> extractTerms(String prompt) {
+        Set<String> terms = new HashSet<>();
+        for (String word : prompt.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() >= 3 && !STOP_WORDS.contains(word)) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+
+    static String describe(Task task, String email) {
+        StringBuilder line = new StringBuilder("- [").append(task.getStatus()).append("] ").append(task.getTitle())
+                .append(" (Priority: ").append(task.getPriority())
+                .append(", Due: ").append(task.getFormattedDueDate());
+        if (task.isOverdue()) {
+            line.append(", OVERDUE");
+        }
+        if (!task.isAssigned()) {
+            line.append(", Unassigned");
+        } else if (task.getAssigneeEmail().equals(email)) {
+            line.append(", Assigned to me");
+        } else {
+            line.append(", Assignee: ").append(task.getAssigneeName());
+        }
+        return line.append(")\n").toString();
+    }
+
+    private static final class ScoredTask {
+        final Task task;
+        final double score;
+
+        ScoredTask(Task task, double score) {
+            this.task = task;
+            this.score = score;
+        }
+    }
+}
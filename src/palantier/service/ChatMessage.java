@@ -0,0 +1,83 @@
+package palantier.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One message of a chat completion conversation, as sent to the API.
+ *
+ * Besides plain system/user/assistant messages this covers the two shapes
+ * tool calling needs: an assistant message carrying the calls the model
+ * made, and a "tool" message with the result of one of those calls.
+ */
+final class ChatMessage {
+
+    static final String ROLE_SYSTEM = "system";
+    static final String ROLE_USER = "user";
+    static final String ROLE_ASSISTANT = "assistant";
+    static final String ROLE_TOOL = "tool";
+
+    final String role;
+    final String content;
+    final String toolCallId;          // set on tool results only
+    final List<ToolCall> toolCalls;   // set on assistant messages that call tools
+
+    private ChatMessage(String role, String content, String toolCallId, List<ToolCall> toolCalls) {
+        this.role = role;
+        this.content = content;
+        this.toolCallId = toolCallId;
+        this.toolCalls = toolCalls;
+    }
+
+    static ChatMessage system(String content) {
+        return new ChatMessage(ROLE_SYSTEM, content, null, Collections.emptyList());
+    }
+
+    static ChatMessage user(String content) {
+        return new ChatMessage(ROLE_USER, content, null, Collections.emptyList());
+    }
+
+    static ChatMessage assistant(String content, List<ToolCall> toolCalls) {
+        return new ChatMessage(ROLE_ASSISTANT, content, null, new ArrayList<>(toolCalls));
+    }
+
+    static ChatMessage toolResult(String toolCallId, String content) {
+        return new ChatMessage(ROLE_TOOL, content, toolCallId, Collections.emptyList());
+    }
+
+    void write(JsonWriter json) throws IOException {
+        json.beginObject().name("role").value(role);
+        // An assistant message that only calls tools has no text
+        json.name("content").value((content == null || content.isEmpty()) && !toolCalls.isEmpty() ? null : content);
+        if (toolCallId != null) {
+            json.name("tool_call_id").value(toolCallId);
+        }
+        if (!toolCalls.isEmpty()) {
+            json.name("tool_calls").beginArray();
+            for (ToolCall call : toolCalls) {
+                json.beginObject()
+                        .name("id").value(call.id)
+                        .name("type").value("function")
+                        .name("function").beginObject()
+                        .name("name").value(call.name)
+                        .name("arguments").value(call.arguments.toString())
+                        .endObject()
+                        .endObject();
+            }
+            json.endArray();
+        }
+        json.endObject();
+    }
+
+    /**
+     * A function call requested by the model. Streamed responses deliver the
+     * arguments in pieces, so they are accumulated as they arrive.
+     */
+    static final class ToolCall {
+        String id;
+        String name;
+        final StringBuilder arguments = new StringBuilder();
+    }
+}
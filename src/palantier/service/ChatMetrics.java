@@ -0,0 +1,335 @@
+package palantier.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ChatMetrics — Latency and size statistics for chatbot requests.
+ *
+ * Every answer ChatbotService produces is recorded as one Sample. Timings
+ * and sizes go into rolling histograms (the last WINDOW_MINUTES, in
+ * one-minute slots) so percentiles reflect recent behaviour rather than the
+ * whole session; answer sources (local, cache, coalesced, remote) and
+ * errors are simple counters.
+ *
+ * The latency of a remote answer is split into what we spend ourselves
+ * (building the prompt and request, running tool calls), time queued behind
+ * the client-side rate limit, and the rest, which is network plus model.
+ *
+ * Query with percentile()/getCount(), print with toString(), or export
+ * everything as JSON with writeJson(). Thread-safe.
+ */
+public class ChatMetrics {
+
+    public static final int WINDOW_MINUTES = 15;
+
+    /**
+     * What a histogram measures. Times are kept in microseconds.
+     */
+    public enum Metric {
+        TOTAL_LATENCY("total_ms", true),
+        TIME_TO_FIRST_TOKEN("first_token_ms", true),
+        TIME_TO_HEADERS("headers_ms", true),
+        PROMPT_BUILD("local_build_ms", true),
+        QUEUE_WAIT("queue_ms", true),
+        REMOTE("remote_ms", true),
+        PAYLOAD_BYTES("payload_bytes", false),
+        RESPONSE_CHARS("response_chars", false);
+
+        final String key;
+        final boolean time;
+
+        Metric(String key, boolean time) {
+            this.key = key;
+            this.time = time;
+        }
+    }
+
+    /**
+     * Where an answer came from.
+     */
+    public enum Source {
+        LOCAL, CACHE, COALESCED, REMOTE, OFFLINE
+    }
+
+    private static final double[] REPORTED_PERCENTILES = {50, 90, 99};
+
+    private final EnumMap<Metric, Histogram> histograms = new EnumMap<>(Metric.class);
+    private final EnumMap<Source, Long> sources = new EnumMap<>(Source.class);
+    private final TreeMap<String, Long> errors = new TreeMap<>();
+
+    public ChatMetrics() {
+        for (Metric metric : Metric.values()) {
+            histograms.put(metric, new Histogram());
+        }
+    }
+
+    /**
+     * Measurements for one answer, filled in by ChatbotService as it goes.
+     * Times are System.nanoTime() durations.
+     */
+    static final class Sample {
+        final long startNanos = System.nanoTime();
+        Source source = Source.REMOTE;
+        long firstTokenNanos;       // since start; 0 until the first token
+        long buildNanos;            // prompt, request body and tool calls
+        long queueNanos;            // waiting for a call permit or a 429 cool-down
+        long headersNanos;          // request sent until response headers, summed over calls
+        long payloadBytes;
+        long responseChars;
+
+        void token(String token) {
+            if (firstTokenNanos == 0) {
+                firstTokenNanos = System.nanoTime() - startNanos;
+            }
+            responseChars += token.length();
+        }
+    }
+
+    /**
+     * Records a finished answer.
+     */
+    synchronized void record(Sample sample) {
+        long totalNanos = System.nanoTime() - sample.startNanos;
+        long now = System.currentTimeMillis();
+        sources.merge(sample.source, 1L, Long::sum);
+        add(Metric.TOTAL_LATENCY, totalNanos / 1000, now);
+        if (sample.firstTokenNanos > 0) {
+            add(Metric.TIME_TO_FIRST_TOKEN, sample.firstTokenNanos / 1000, now);
+        }
+        add(Metric.RESPONSE_CHARS, sample.responseChars, now);
+        if (sample.source != Source.REMOTE) {
+            return;
+        }
+        add(Metric.PROMPT_BUILD, sample.buildNanos / 1000, now);
+        add(Metric.QUEUE_WAIT, sample.queueNanos / 1000, now);
+        add(Metric.TIME_TO_HEADERS, sample.headersNanos / 1000, now);
+        add(Metric.REMOTE, Math.max(0, totalNanos - sample.buildNanos - sample.queueNanos) / 1000, now);
+        add(Metric.PAYLOAD_BYTES, sample.payloadBytes, now);
+    }
+
+    /**
+     * Counts an error, e.g. "http_429", "timeout" or an exception name.
+     */
+    synchronized void recordError(String kind) {
+        errors.merge(kind, 1L, Long::sum);
+    }
+
+    /**
+     * Returns the p-th percentile (0-100) over the rolling window, in
+     * microseconds for times; 0 when nothing was recorded.
+     */
+    public synchronized long percentile(Metric metric, double p) {
+        return histograms.get(metric).percentile(p, System.currentTimeMillis());
+    }
+
+    /**
+     * Number of values recorded for the metric in the rolling window.
+     */
+    public synchronized long getCount(Metric metric) {
+        return histograms.get(metric).count(System.currentTimeMillis());
+    }
+
+    public synchronized Map<Source, Long> getSourceCounts() {
+        return new EnumMap<>(sources);
+    }
+
+    public synchronized Map<String, Long> getErrorCounts() {
+        return new TreeMap<>(errors);
+    }
+
+    public synchronized void reset() {
+        for (Histogram histogram : histograms.values()) {
+            histogram.clear();
+        }
+        sources.clear();
+        errors.clear();
+    }
+
+    /**
+     * Exports all metrics as one JSON object: source and error counters,
+     * then count and p50/p90/p99 per metric (times in milliseconds).
+     */
+    public synchronized void writeJson(Writer out) throws IOException {
+        long now = System.currentTimeMillis();
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject();
+        json.name("window_minutes").value(WINDOW_MINUTES);
+        json.name("sources").beginObject();
+        for (Source source : Source.values()) {
+            json.name(source.name().toLowerCase(Locale.ROOT)).value(sources.getOrDefault(source, 0L));
+        }
+        json.endObject();
+        json.name("errors").beginObject();
+        for (Map.Entry<String, Long> entry : errors.entrySet()) {
+            json.name(entry.getKey()).value(entry.getValue());
+        }
+        json.endObject();
+        for (Metric metric : Metric.values()) {
+            Histogram histogram = histograms.get(metric);
+            json.name(metric.key).beginObject().name("count").value(histogram.count(now));
+            for (double p : REPORTED_PERCENTILES) {
+                json.name("p" + (int) p);
+                long value = histogram.percentile(p, now);
+                if (metric.time) {
+                    json.value(Math.round(value / 100.0) / 10.0);
+                } else {
+                    json.value(value);
+                }
+            }
+            json.endObject();
+        }
+        json.endObject();
+        json.flush();
+    }
+
+    /**
+     * One-line summary, e.g. for the log when the chat window closes.
+     */
+    @Override
+    public synchronized String toString() {
+        long now = System.currentTimeMillis();
+        StringBuilder sb = new StringBuilder();
+        sb.append(sources.isEmpty() ? "no requests" : sources.toString().toLowerCase(Locale.ROOT));
+        appendTime(sb, "total", Metric.TOTAL_LATENCY, now);
+        appendTime(sb, "first token", Metric.TIME_TO_FIRST_TOKEN, now);
+        appendTime(sb, "local build", Metric.PROMPT_BUILD, now);
+        appendTime(sb, "queued", Metric.QUEUE_WAIT, now);
+        appendTime(sb, "remote", Metric.REMOTE, now);
+        if (!errors.isEmpty()) {
+            sb.append(", errors ").append(errors);
+        }
+        return sb.toString();
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ══════════════════════════════════════════════════════════════════════
+
+    private void add(Metric metric, long value, long now) {
+        histograms.get(metric).add(value, now);
+    }
+
+    private void appendTime(StringBuilder sb, String label, Metric metric, long now) {
+        Histogram histogram = histograms.get(metric);
+        if (histogram.count(now) == 0) {
+            return;
+        }
+        sb.append(String.format(Locale.ROOT, ", %s p50 %.1f / p99 %.1f ms", label,
+                histogram.percentile(50, now) / 1000.0, histogram.percentile(99, now) / 1000.0));
+    }
+
+    /**
+     * Log-linear histogram over a rolling window of one-minute slots.
+     *
+     * Values below 8 get their own bucket; above that each power of two is
+     * split into 8 buckets, so a reported percentile is within about 12% of
+     * the true value while a slot stays a fixed 488 longs.
+     */
+    private static final class Histogram {
+        private static final int SUB_BUCKETS = 8;
+        private static final int SUB_BITS = 3;
+        private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BITS) * SUB_BUCKETS;
+        private static final long SLOT_MS = 60_000L;
+
+        private final long[][] slots = new long[WINDOW_MINUTES][];
+        private final long[] slotMinute = new long[WINDOW_MINUTES];
+
+        void add(long value, long now) {
+            long minute = now / SLOT_MS;
+            int index = (int) (minute % WINDOW_MINUTES);
+            if (slots[index] == null) {
+                slots[index] = new long[BUCKETS];
+                slotMinute[index] = minute;
+            } else if (slotMinute[index] != minute) {
+                Arrays.fill(slots[index], 0L);      // the minute in this slot has left the window
+                slotMinute[index] = minute;
+            }
+            slots[index][bucket(Math.max(0, value))]++;
+        }
+
+        long count(long now) {
+            long count = 0;
+            for (long[] slot : live(now)) {
+                if (slot != null) {
+                    for (long c : slot) {
+                        count += c;
+                    }
+                }
+            }
+            return count;
+        }
+
+        long percentile(double p, long now) {
+            long[] merged = new long[BUCKETS];
+            long total = 0;
+            for (long[] slot : live(now)) {
+                if (slot != null) {
+                    for (int i = 0; i < BUCKETS; i++) {
+                        merged[i] += slot[i];
+                        total += slot[i];
+                    }
+                }
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(p / 100.0 * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += merged[i];
+                if (seen >= rank) {
+                    return upperBound(i);
+                }
+            }
+            return upperBound(BUCKETS - 1);
+        }
+
+        void clear() {
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = null;
+            }
+        }
+
+        /**
+         * The slots still inside the window (others as null).
+         */
+        private long[][] live(long now) {
+            long oldest = now / SLOT_MS - WINDOW_MINUTES + 1;
+            long[][] live = new long[WINDOW_MINUTES][];
+            for (int i = 0; i < WINDOW_MINUTES; i++) {
+                if (slots[i] != null && slotMinute[i] >= oldest) {
+                    live[i] = slots[i];
+                }
+            }
+            return live;
+        }
+
+        private static int bucket(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) ((value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1));
+            return SUB_BUCKETS + (exponent - SUB_BITS) * SUB_BUCKETS + sub;
+        }
+
+        /**
+         * Largest value that falls into the bucket.
+         */
+        private static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BITS;
+            int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+            long lower = (1L << exponent) + ((long) sub << (exponent - SUB_BITS));
+            return lower + (1L << (exponent - SUB_BITS)) - 1;
+        }
+    }
+}
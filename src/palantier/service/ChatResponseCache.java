@@ -0,0 +1,132 @@
+package palantier.service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ChatResponseCache — Remembers recent chatbot answers.
+ *
+ * Entries are keyed by the asking user and the normalized prompt (case,
+ * extra whitespace and trailing punctuation ignored), and tagged with the
+ * TaskManager state version the answer was built from. A lookup only hits
+ * while that version is unchanged, so any task edit, delete or sync
+ * invalidates every cached answer without having to track which tasks an
+ * answer mentioned. Entries also expire after a fixed time, and the least
+ * recently used one is dropped once the cache is full.
+ *
+ * Thread-safe; all methods synchronize on the cache.
+ */
+public class ChatResponseCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 100;
+    public static final long DEFAULT_TTL_MS = 10L * 60L * 1000L;
+
+    private final int maxEntries;
+    private final long ttlMs;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private long hits;
+    private long misses;
+
+    public ChatResponseCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MS);
+    }
+
+    /**
+     * @param maxEntries most answers kept before the least recently used is dropped
+     * @param ttlMs      how long an answer may be reused, in milliseconds
+     */
+    public ChatResponseCache(int maxEntries, long ttlMs) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        // Access order, so iteration starts at the least recently used entry
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ChatResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached answer for this user and prompt, or null if there is
+     * none, it has expired, or the tasks changed since it was stored.
+     */
+    public synchronized String get(String userEmail, String prompt, long stateVersion) {
+        String key = key(userEmail, prompt);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.stateVersion != stateVersion || System.currentTimeMillis() - entry.storedAt > ttlMs) {
+            entries.remove(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.response;
+    }
+
+    /**
+     * Stores an answer built from the tasks as of {@code stateVersion}.
+     */
+    public synchronized void put(String userEmail, String prompt, long stateVersion, String response) {
+        entries.put(key(userEmail, prompt), new Entry(response, stateVersion, System.currentTimeMillis()));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return entries.size() + " entries, " + hits + " hits, " + misses + " misses";
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ══════════════════════════════════════════════════════════════════════
+
+    private static String key(String userEmail, String prompt) {
+        return (userEmail != null ? userEmail.toLowerCase(Locale.ROOT) : "") + '\n' + normalize(prompt);
+    }
+
+    /**
+     * Lowercases, collapses runs of whitespace and strips trailing
+     * punctuation, so "What's due?" and "what's  due" share an entry.
+     */
+    static String normalize(String prompt) {
+        String text = prompt.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        int end = text.length();
+        while (end > 0 && ".?!,;:".indexOf(text.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return text.substring(0, end).trim();
+    }
+
+    private static final class Entry {
+        final String response;
+        final long stateVersion;
+        final long storedAt;
+
+        Entry(String response, long stateVersion, long storedAt) {
+            this.response = response;
+            this.stateVersion = stateVersion;
+            this.storedAt = storedAt;
+        }
+    }
+}
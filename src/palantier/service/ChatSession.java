@@ -0,0 +1,228 @@
+package palantier.service;
+
+import palantier.model.Task;
+import palantier.model.User;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ChatSession — One ongoing conversation with the chatbot.
+ *
+ * Follow-up questions need the earlier turns, but re-sending the whole
+ * transcript grows without limit. A session therefore keeps:
+ *
+ * - the last few turns verbatim (MAX_RECENT_TURNS question/answer pairs)
+ * - a rolling summary of everything older, one short line per turn,
+ *   capped at MAX_SUMMARY_CHARS by dropping the oldest lines
+ * - a snapshot of task versions, so each new question carries only the
+ *   tasks added, changed or removed since the previous one
+ *
+ * so the request size stays bounded however long the conversation runs.
+ * Obtain one from ChatbotService.startSession(); all methods are
+ * synchronized because answers are produced on a background thread.
+ */
+public class ChatSession {
+
+    public static final int MAX_RECENT_TURNS = 6;
+    public static final int MAX_SUMMARY_CHARS = 1200;
+
+    private static final int SUMMARY_SNIPPET_CHARS = 140;
+    private static final int MAX_DELTA_LINES = 10;
+
+    private final User user;
+    private final TaskManager taskManager;
+
+    // Verbatim user/assistant messages of the most recent turns, oldest first
+    private final ArrayDeque<ChatMessage> recent = new ArrayDeque<>();
+    // One line per turn that no longer fits in recent, oldest first
+    private final ArrayDeque<String> summary = new ArrayDeque<>();
+    private int summaryChars;
+    private int turnCount;
+
+    // Task id -> {version, title} as of the previous question; null before the first one
+    private Map<String, Snapshot> taskSnapshot;
+    private long snapshotStateVersion = -1;
+
+    ChatSession(User user, TaskManager taskManager) {
+        this.user = user;
+        this.taskManager = taskManager;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public TaskManager getTaskManager() {
+        return taskManager;
+    }
+
+    /**
+     * Number of answered turns in this conversation.
+     */
+    public synchronized int getTurnCount() {
+        return turnCount;
+    }
+
+    /**
+     * Forgets the conversation; the next question starts afresh.
+     */
+    public synchronized void clear() {
+        recent.clear();
+        summary.clear();
+        summaryChars = 0;
+        turnCount = 0;
+        taskSnapshot = null;
+        snapshotStateVersion = -1;
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // REQUEST BUILDING (used by ChatbotService)
+    // ══════════════════════════════════════════════════════════════════════
+
+    /**
+     * The summary of turns older than the verbatim ones, or null if none.
+     */
+    synchronized String conversationSummary() {
+        if (summary.isEmpty()) {
+            return null;
+        }
+        return String.join("\n", summary);
+    }
+
+    synchronized List<ChatMessage> recentMessages() {
+        return new ArrayList<>(recent);
+    }
+
+    /**
+     * Describes the task changes since the last recorded question. The
+     * snapshot only moves forward when the turn is recorded with this delta,
+     * so a turn that fails or is stopped leaves its changes for the next one.
+     * The text is null on the first question (the system prompt covers the
+     * board then) and when nothing changed.
+     */
+    synchronized TaskDelta taskDelta() {
+        long stateVersion = taskManager.getStateVersion();
+        if (taskSnapshot != null && stateVersion == snapshotStateVersion) {
+            return new TaskDelta(null, taskSnapshot, stateVersion);
+        }
+        ArrayList<Task> tasks = taskManager.getAllTasks();
+        Map<String, Snapshot> current = new HashMap<>(tasks.size() * 2);
+        for (Task task : tasks) {
+            current.put(task.getId(), new Snapshot(task.getVersion(), task.getTitle()));
+        }
+        Map<String, Snapshot> previous = taskSnapshot;
+        if (previous == null) {
+            return new TaskDelta(null, current, stateVersion);
+        }
+
+        ArrayList<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            Snapshot before = previous.get(task.getId());
+            if (before == null) {
+                lines.add("Added: " + ChatContextBuilder.describe(task, user.getEmail()).substring(2).trim());
+            } else if (before.version != task.getVersion()) {
+                lines.add("Changed: " + ChatContextBuilder.describe(task, user.getEmail()).substring(2).trim());
+            }
+        }
+        for (Map.Entry<String, Snapshot> entry : previous.entrySet()) {
+            if (!current.containsKey(entry.getKey())) {
+                lines.add("Removed: " + entry.getValue().title);
+            }
+        }
+        if (lines.isEmpty()) {
+            return new TaskDelta(null, current, stateVersion);
+        }
+        StringBuilder sb = new StringBuilder("Task changes since my last message:\n");
+        int shown = Math.min(lines.size(), MAX_DELTA_LINES);
+        for (int i = 0; i < shown; i++) {
+            sb.append("- ").append(lines.get(i)).append('\n');
+        }
+        if (shown < lines.size()) {
+            sb.append("(").append(lines.size() - shown).append(" more changes not listed.)\n");
+        }
+        return new TaskDelta(sb.toString(), current, stateVersion);
+    }
+
+    /**
+     * Records a completed turn, folding the oldest verbatim turn into the
+     * summary once there are more than MAX_RECENT_TURNS.
+     *
+     * @param question the user's question, without any task-change note sent with it
+     */
+    synchronized void record(String question, String answer) {
+        record(question, answer, null);
+    }
+
+    /**
+     * Records a completed turn that was answered from the board as of
+     * {@code delta}, moving the task snapshot forward to it.
+     */
+    synchronized void record(String question, String answer, TaskDelta delta) {
+        if (delta != null) {
+            taskSnapshot = delta.snapshot;
+            snapshotStateVersion = delta.stateVersion;
+        }
+        recent.addLast(ChatMessage.user(question));
+        recent.addLast(ChatMessage.assistant(answer, new ArrayList<>()));
+        turnCount++;
+        while (recent.size() > MAX_RECENT_TURNS * 2) {
+            ChatMessage oldQuestion = recent.removeFirst();
+            ChatMessage oldAnswer = recent.removeFirst();
+            addSummaryLine("User asked: " + snippet(oldQuestion.content)
+                    + " / Assistant: " + snippet(oldAnswer.content));
+        }
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ══════════════════════════════════════════════════════════════════════
+
+    private void addSummaryLine(String line) {
+        summary.addLast(line);
+        summaryChars += line.length() + 1;
+        while (summaryChars > MAX_SUMMARY_CHARS && summary.size() > 1) {
+            summaryChars -= summary.removeFirst().length() + 1;
+        }
+    }
+
+    /**
+     * The text on a single line, shortened to SUMMARY_SNIPPET_CHARS.
+     */
+    private static String snippet(String text) {
+        if (text == null) {
+            return "";
+        }
+        String line = text.trim().replaceAll("\\s+", " ");
+        return line.length() <= SUMMARY_SNIPPET_CHARS ? line : line.substring(0, SUMMARY_SNIPPET_CHARS - 3) + "...";
+    }
+
+    /**
+     * Task changes to tell the model about, plus the snapshot that becomes
+     * current once the turn they were sent with is recorded.
+     */
+    static final class TaskDelta {
+        final String text;      // null when there is nothing to tell
+        private final Map<String, Snapshot> snapshot;
+        private final long stateVersion;
+
+        TaskDelta(String text, Map<String, Snapshot> snapshot, long stateVersion) {
+            this.text = text;
+            this.snapshot = snapshot;
+            this.stateVersion = stateVersion;
+        }
+    }
+
+    private static final class Snapshot {
+        final long version;
+        final String title;
+
+        Snapshot(long version, String title) {
+            this.version = version;
+            this.title = title;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package palantier.service;
+
+import palantier.model.Comment;
+import palantier.model.Task;
+import palantier.model.User;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ChatTools — The functions the chatbot model may call to look up tasks.
+ *
+ * Advertised to the API through the OpenAI-compatible "tools" field and
+ * executed locally against TaskManager when the model asks for them, so the
+ * request only carries the data the model actually needs instead of the
+ * whole board. Every result is plain text and lists at most MAX_RESULTS
+ * tasks, so one call cannot blow up the conversation either.
+ */
+final class ChatTools {
+
+    static final String FILTER_TASKS = "filter_tasks";
+    static final String COUNT_OVERDUE = "count_overdue";
+    static final String GET_TASK = "get_task";
+    static final String LIST_USER_TASKS = "list_user_tasks";
+
+    static final int MAX_RESULTS = 25;
+
+    /**
+     * Overdue first, then High before Medium before Low, then earliest due date.
+     */
+    static final Comparator<Task> MOST_URGENT_FIRST = (a, b) -> {
+        if (a.isOverdue() != b.isOverdue()) {
+            return a.isOverdue() ? -1 : 1;
+        }
+        int byPriority = priorityRank(b) - priorityRank(a);
+        if (byPriority != 0) {
+            return byPriority;
+        }
+        if (a.getDueDate() == null || b.getDueDate() == null) {
+            return a.getDueDate() == null ? (b.getDueDate() == null ? 0 : 1) : -1;
+        }
+        return a.getDueDate().compareTo(b.getDueDate());
+    };
+
+    private static final int MAX_DESCRIPTION_CHARS = 1000;
+    private static final int RECENT_COMMENTS = 3;
+
+    private final User currentUser;
+    private final TaskManager taskManager;
+
+    ChatTools(User currentUser, TaskManager taskManager) {
+        this.currentUser = currentUser;
+        this.taskManager = taskManager;
+    }
+
+    /**
+     * Writes the "tools" array of the chat completion request.
+     */
+    static void writeDefinitions(JsonWriter json) throws IOException {
+        json.beginArray();
+
+        beginTool(json, FILTER_TASKS, "Lists tasks matching all given filters, most urgent first. "
+                + "Each line starts with the task id.");
+        writeProperty(json, "status", "Task status", Task.ALL_STATUSES);
+        writeProperty(json, "priority", "Task priority", Task.ALL_PRIORITIES);
+        writeProperty(json, "assignee_email", "Assignee's email, or \"Unassigned\"");
+        writeProperty(json, "text", "Words to find in the title or description");
+        endTool(json);
+
+        beginTool(json, COUNT_OVERDUE, "Counts open tasks whose due date has passed.");
+        writeProperty(json, "assignee_email", "Only count tasks assigned to this email");
+        endTool(json);
+
+        beginTool(json, GET_TASK, "Returns one task in full, with its description and latest comments.");
+        writeProperty(json, "task_id", "Task id as returned by the other functions");
+        json.endObject().name("required").beginArray().value("task_id").endArray();
+        json.endObject().endObject().endObject();
+
+        beginTool(json, LIST_USER_TASKS, "Lists the open tasks assigned to a user, most urgent first.");
+        writeProperty(json, "email", "User's email; defaults to the user asking");
+        writeProperty(json, "include_done", "Also list completed tasks", "true", "false");
+        endTool(json);
+
+        json.endArray();
+    }
+
+    /**
+     * Runs one tool call and returns its result for the model. Unknown
+     * functions and bad arguments are reported as text, never thrown, so the
+     * model can correct itself.
+     */
+    String execute(String name, String argumentsJson) {
+        Map<String, String> args;
+        try {
+            args = parseArguments(argumentsJson);
+        } catch (IOException e) {
+            return "Error: arguments are not valid JSON (" + e.getMessage() + ")";
+        }
+
+        if (FILTER_TASKS.equals(name)) {
+            return filterTasks(args);
+        }
+        if (COUNT_OVERDUE.equals(name)) {
+            return countOverdue(args.get("assignee_email"));
+        }
+        if (GET_TASK.equals(name)) {
+            return getTask(args.get("task_id"));
+        }
+        if (LIST_USER_TASKS.equals(name)) {
+            String email = args.get("email");
+            return listUserTasks(email != null && !email.isEmpty() ? email : currentUser.getEmail(),
+                    "true".equals(args.get("include_done")));
+        }
+        return "Error: unknown function " + name;
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // TOOLS
+    // ══════════════════════════════════════════════════════════════════════
+
+    private String filterTasks(Map<String, String> args) {
+        ArrayList<Task> matches = tasksAssignedTo(args.get("assignee_email"),
+                args.get("status"), args.get("priority"));
+        String text = args.get("text");
+        if (text != null && !text.trim().isEmpty()) {
+            String needle = text.trim().toLowerCase(Locale.ROOT);
+            matches.removeIf(task -> !(task.getTitle().toLowerCase(Locale.ROOT).contains(needle)
+                    || (task.getDescription() != null
+                    && task.getDescription().toLowerCase(Locale.ROOT).contains(needle))));
+        }
+        return listTasks(matches);
+    }
+
+    private String countOverdue(String assigneeEmail) {
+        int overdue = 0;
+        for (Task task : taskManager.getAllTasks()) {
+            if (task.isOverdue() && (assigneeEmail == null || assigneeEmail.isEmpty()
+                    || assigneeEmail.equalsIgnoreCase(task.getAssigneeEmail()))) {
+                overdue++;
+            }
+        }
+        return overdue + " overdue task" + (overdue == 1 ? "" : "s");
+    }
+
+    private String getTask(String taskId) {
+        Task task = taskManager.findTaskById(taskId);
+        if (task == null) {
+            return "Error: no task with id " + taskId;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("Title: ").append(task.getTitle())
+                .append("\nStatus: ").append(task.getStatus())
+                .append("\nPriority: ").append(task.getPriority())
+                .append("\nDue: ").append(task.getFormattedDueDate()).append(task.isOverdue() ? " (overdue)" : "")
+                .append("\nAssignee: ").append(task.isAssigned() ? task.getAssigneeName() : "Unassigned")
+                .append("\nCreated by: ").append(task.getCreatedByName())
+                .append(" on ").append(task.getFormattedCreatedDate());
+
+        String description = task.getDescription();
+        if (description != null && !description.isEmpty()) {
+            if (description.length() > MAX_DESCRIPTION_CHARS) {
+                description = description.substring(0, MAX_DESCRIPTION_CHARS) + "...";
+            }
+            sb.append("\nDescription: ").append(description);
+        }
+
+        List<Comment> comments = task.getComments();
+        sb.append("\nComments: ").append(comments.size());
+        for (int i = Math.max(0, comments.size() - RECENT_COMMENTS); i < comments.size(); i++) {
+            Comment comment = comments.get(i);
+            sb.append("\n- ").append(comment.getAuthorName())
+                    .append(" (").append(comment.getFormattedTimestamp()).append("): ").append(comment.getText());
+        }
+        return sb.toString();
+    }
+
+    private String listUserTasks(String email, boolean includeDone) {
+        ArrayList<Task> assigned = tasksAssignedTo(email, null, null);
+        if (!includeDone) {
+            assigned.removeIf(task -> Task.STATUS_DONE.equals(task.getStatus()));
+        }
+        return listTasks(assigned);
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Tasks with the given status and priority assigned to {@code assignee}.
+     * The model often changes an email's case, so emails are matched ignoring
+     * case (TaskManager compares them exactly); "Unassigned" keeps its meaning
+     * and a missing assignee matches every task.
+     */
+    private ArrayList<Task> tasksAssignedTo(String assignee, String status, String priority) {
+        String email = assignee != null ? assignee.trim() : "";
+        if (email.isEmpty() || email.equalsIgnoreCase("All")) {
+            return taskManager.getFilteredTasks(status, priority, null);
+        }
+        if (email.equalsIgnoreCase("Unassigned")) {
+            return taskManager.getFilteredTasks(status, priority, "Unassigned");
+        }
+        ArrayList<Task> matches = taskManager.getFilteredTasks(status, priority, null);
+        matches.removeIf(task -> !email.equalsIgnoreCase(task.getAssigneeEmail()));
+        return matches;
+    }
+
+    /**
+     * One line per task, overdue and high priority first, capped at MAX_RESULTS.
+     */
+    private String listTasks(ArrayList<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return "No matching tasks.";
+        }
+        tasks.sort(MOST_URGENT_FIRST);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(tasks.size()).append(" matching task").append(tasks.size() == 1 ? "" : "s").append(":\n");
+        int shown = Math.min(tasks.size(), MAX_RESULTS);
+        for (int i = 0; i < shown; i++) {
+            sb.append(tasks.get(i).getId()).append(' ')
+                    .append(ChatContextBuilder.describe(tasks.get(i), currentUser.getEmail()));
+        }
+        if (shown < tasks.size()) {
+            sb.append("(").append(tasks.size() - shown).append(" more not shown; narrow the filters.)");
+        }
+        return sb.toString();
+    }
+
+    private static int priorityRank(Task task) {
+        if (Task.PRIORITY_HIGH.equals(task.getPriority())) {
+            return 2;
+        }
+        return Task.PRIORITY_MEDIUM.equals(task.getPriority()) ? 1 : 0;
+    }
+
+    /**
+     * Reads a flat JSON object of arguments; numbers and booleans are kept as text.
+     */
+    static Map<String, String> parseArguments(String argumentsJson) throws IOException {
+        Map<String, String> args = new HashMap<>();
+        if (argumentsJson == null || argumentsJson.trim().isEmpty()) {
+            return args;
+        }
+        JsonReader reader = new JsonReader(new StringReader(argumentsJson));
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (reader.peek()) {
+                case STRING:
+                    args.put(name, reader.nextString());
+                    break;
+                case NUMBER:
+                    args.put(name, reader.nextNumber());
+                    break;
+                case BOOLEAN:
+                    args.put(name, Boolean.toString(reader.nextBoolean()));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return args;
+    }
+
+    private static void beginTool(JsonWriter json, String name, String description) throws IOException {
+        json.beginObject()
+                .name("type").value("function")
+                .name("function").beginObject()
+                .name("name").value(name)
+                .name("description").value(description)
+                .name("parameters").beginObject()
+                .name("type").value("object")
+                .name("properties").beginObject();
+    }
+
+    private static void endTool(JsonWriter json) throws IOException {
+        json.endObject().endObject().endObject().endObject();
+    }
+
+    private static void writeProperty(JsonWriter json, String name, String description, String... allowed)
+            throws IOException {
+        json.name(name).beginObject()
+                .name("type").value("string")
+                .name("description").value(description);
+        if (allowed.length > 0) {
+            json.name("enum").beginArray();
+            for (String value : allowed) {
+                json.value(value);
+            }
+            json.endArray();
+        }
+        json.endObject();
+    }
+}
@@ -1,19 +1,80 @@
 package palantier.service;
 
-import palantier.model.Task;
 import palantier.model.User;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * ChatbotService — Handles AI chatbot logic.
  * Integrates with an LLM via REST API (e.g., OpenAI).
+ *
+ * Responses are requested in the OpenAI-compatible streaming mode
+ * ("stream": true) and read as server-sent events, so callers receive the
+ * answer token by token as it is generated instead of after the last one.
+ *
+ * Requests go through one shared java.net.http.HttpClient, which keeps a
+ * pooled (HTTP/2 where the server supports it) connection alive between
+ * messages, and has connect and response timeouts. Once the stream is open
+ * an idle timeout applies instead: a stream that sends nothing for that long
+ * is aborted, so a stalled answer cannot hold a call slot forever.
+ * cancelInFlight() aborts whatever request is still running, e.g. when the
+ * chat window closes or a newer prompt replaces an unanswered one.
+ *
+ * Task data reaches the model through tool calls: the request only carries
+ * a board summary plus the ChatTools function definitions, and the model's
+ * calls (filter tasks, count overdue, get one task, list a user's tasks) are
+ * run locally against TaskManager and their results sent back, for up to
+ * MAX_TOOL_ROUNDS rounds. The payload therefore stays small however large
+ * the board is.
+ *
+ * Questions LocalIntentEngine understands (my tasks, overdue, due this week,
+ * by priority or assignee, what to do first) are answered locally and never
+ * reach the API; without an API key these are the only answers available.
+ *
+ * startSession() returns a ChatSession for follow-up questions: recent turns
+ * are re-sent verbatim, older ones as a short rolling summary, and each
+ * question carries only the task changes since the previous one.
+ *
+ * Outbound calls are throttled for the whole application: at most
+ * MAX_CONCURRENT_CALLS run at once (further requests queue in arrival
+ * order), an HTTP 429 pauses every request for the server's Retry-After or
+ * an exponential backoff before retrying, and an opening question asked
+ * again while the same one is still being answered waits for that answer
+ * instead of making a second call.
+ *
+ * Every answer is timed into ChatMetrics (getMetrics()): prompt build,
+ * queueing, time to headers and first token, total latency, sizes, answer
+ * source and errors.
+ *
+ * Complete answers are kept in a ChatResponseCache shared by all services,
+ * so asking the same question again while no task has changed is answered
+ * immediately without another API call.
  */
 public class ChatbotService {
 
@@ -21,7 +82,150 @@ public class ChatbotService {
     private static final String API_ENDPOINT = "https://api.groq.com/openai/v1/chat/completions";
     private static final String MODEL_NAME = "llama-3.1-8b-instant";
 
+    // Marks the end of an OpenAI-style event stream
+    private static final String STREAM_DONE = "[DONE]";
+
+    // Rounds of tool calls allowed before the model must answer
+    private static final int MAX_TOOL_ROUNDS = 4;
+    // Tool calls accepted from one model turn; fragments for later indexes are ignored
+    private static final int MAX_TOOL_CALLS = 8;
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int MAX_RATE_LIMIT_RETRIES = 3;
+    private static final long RATE_LIMIT_BASE_DELAY_MS = 1000L;
+    private static final long RATE_LIMIT_MAX_DELAY_MS = 30_000L;
+
+    // Outbound API calls allowed at once across every dialog; fair, so waiting requests go in arrival order
+    public static final int MAX_CONCURRENT_CALLS = Integer.getInteger("palantier.chat.maxConcurrent", 2);
+    private static final Semaphore OUTBOUND_CALLS = new Semaphore(MAX_CONCURRENT_CALLS, true);
+
+    // No request is sent before this time (epoch ms) after the API answered 429
+    private static volatile long rateLimitedUntil;
+
+    // Opening questions currently being answered, by user, task state and normalized prompt
+    private static final ConcurrentHashMap<String, CompletableFuture<String>> PENDING_ANSWERS =
+            new ConcurrentHashMap<>();
+
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    // Time allowed until the response headers (i.e. the start of the stream) arrive
+    public static final Duration DEFAULT_RESPONSE_TIMEOUT = Duration.ofSeconds(60);
+    // Longest silence allowed on an open stream before it is aborted
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofSeconds(30);
+
+    // Checks open streams for silence; one daemon thread for every service
+    private static final ScheduledExecutorService STREAM_WATCHDOG = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "palantier-chat-watchdog");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    // Shared by every service using the default timeouts, so the connection is reused across dialogs
+    private static final HttpClient SHARED_CLIENT = buildClient(DEFAULT_CONNECT_TIMEOUT);
+
+    private final String endpoint;
+    private final HttpClient client;
+    private final Duration responseTimeout;
+    private final Duration idleTimeout;
+
+    // Shared, so an answer is reused even after the chat window is reopened
+    private static final ChatResponseCache SHARED_CACHE = new ChatResponseCache();
+
+    // Ranks tasks into a token-budgeted system prompt
+    private ChatContextBuilder contextBuilder = new ChatContextBuilder();
+
+    // Let the model look tasks up through ChatTools instead of listing them in the prompt
+    private boolean toolsEnabled = true;
+
+    // Answers common questions locally; null sends everything to the model
+    private LocalIntentEngine intentEngine = new LocalIntentEngine();
+
+    // Shared, so the numbers cover every chat window
+    private static final ChatMetrics SHARED_METRICS = new ChatMetrics();
+
+    // Latency, size and error statistics of the answers given
+    private ChatMetrics metrics = SHARED_METRICS;
+
+    // Answers already given for unchanged task data
+    private ChatResponseCache responseCache = SHARED_CACHE;
+
+    // Requests currently running, so they can be cancelled
+    private final Set<InFlight> inFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Uses the endpoint from -Dpalantier.chat.endpoint, or the Groq API.
+     */
     public ChatbotService() {
+        this(System.getProperty("palantier.chat.endpoint", API_ENDPOINT));
+    }
+
+    /**
+     * @param endpoint chat completions URL (e.g. a local stub server in tests)
+     */
+    public ChatbotService(String endpoint) {
+        this.endpoint = endpoint;
+        this.client = SHARED_CLIENT;
+        this.responseTimeout = DEFAULT_RESPONSE_TIMEOUT;
+        this.idleTimeout = DEFAULT_IDLE_TIMEOUT;
+    }
+
+    public ChatbotService(String endpoint, Duration connectTimeout, Duration responseTimeout) {
+        this(endpoint, connectTimeout, responseTimeout, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * @param idleTimeout longest silence allowed on an open response stream
+     */
+    public ChatbotService(String endpoint, Duration connectTimeout, Duration responseTimeout, Duration idleTimeout) {
+        this.endpoint = endpoint;
+        this.client = connectTimeout.equals(DEFAULT_CONNECT_TIMEOUT) ? SHARED_CLIENT : buildClient(connectTimeout);
+        this.responseTimeout = responseTimeout;
+        this.idleTimeout = idleTimeout;
+    }
+
+    private static HttpClient buildClient(Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .build();
+    }
+
+    public void setContextBuilder(ChatContextBuilder contextBuilder) {
+        this.contextBuilder = contextBuilder;
+    }
+
+    /**
+     * With tools disabled (for endpoints that do not support them) the
+     * system prompt lists the most relevant tasks instead.
+     */
+    public void setToolsEnabled(boolean toolsEnabled) {
+        this.toolsEnabled = toolsEnabled;
+    }
+
+    public void setIntentEngine(LocalIntentEngine intentEngine) {
+        this.intentEngine = intentEngine;
+    }
+
+    public ChatMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(ChatMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setResponseCache(ChatResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Aborts every request this service still has running. The streaming
+     * call returns the text received so far and reports nothing more.
+     */
+    public void cancelInFlight() {
+        for (InFlight call : inFlight) {
+            call.cancel();
+        }
     }
 
     /**
@@ -35,6 +239,77 @@ public class ChatbotService {
      * @return The AI's response text
      */
     public String getChatbotResponse(String prompt, String apiKey, User currentUser, TaskManager taskManager) {
+        return streamChatbotResponse(prompt, apiKey, currentUser, taskManager, token -> {
+        });
+    }
+
+    /**
+     * Like getChatbotResponse, but hands each piece of the answer to
+     * {@code onToken} as soon as it arrives. Everything in the returned text
+     * (including fallback answers and error messages) is also passed to
+     * onToken, so a caller that only renders tokens misses nothing.
+     *
+     * Called on a background thread; onToken runs on that same thread.
+     *
+     * @return the complete response text
+     */
+    public String streamChatbotResponse(String prompt, String apiKey, User currentUser, TaskManager taskManager,
+                                        Consumer<String> onToken) {
+        return respond(null, prompt, apiKey, currentUser, taskManager, onToken);
+    }
+
+    /**
+     * Starts a conversation whose questions see the earlier turns.
+     */
+    public ChatSession startSession(User currentUser, TaskManager taskManager) {
+        return new ChatSession(currentUser, taskManager);
+    }
+
+    /**
+     * Answers the next question of a conversation, streaming like
+     * streamChatbotResponse. The request carries the session's recent turns,
+     * the summary of older ones and the task changes since the previous
+     * question; the answer is added to the session once complete.
+     */
+    public String streamChatbotResponse(ChatSession session, String prompt, String apiKey,
+                                        Consumer<String> onToken) {
+        return respond(session, prompt, apiKey, session.getUser(), session.getTaskManager(), onToken);
+    }
+
+    /**
+     * Answers one question and records its metrics.
+     *
+     * @param session the conversation, or null for a one-off question
+     */
+    private String respond(ChatSession session, String prompt, String apiKey, User currentUser,
+                           TaskManager taskManager, Consumer<String> onToken) {
+        ChatMetrics.Sample sample = new ChatMetrics.Sample();
+        try {
+            return answer(session, prompt, apiKey, currentUser, taskManager, token -> {
+                sample.token(token);
+                onToken.accept(token);
+            }, sample);
+        } finally {
+            metrics.record(sample);
+        }
+    }
+
+    private String answer(ChatSession session, String prompt, String apiKey, User currentUser,
+                          TaskManager taskManager, Consumer<String> onToken, ChatMetrics.Sample sample) {
+
+        // Everyday questions are answered on this machine; only the rest go to the model.
+        // A follow-up about an earlier answer needs the conversation, which only the model sees
+        boolean followUp = session != null && session.getTurnCount() > 0;
+        if (intentEngine != null && !(followUp && intentEngine.refersToEarlierTurn(prompt))) {
+            String local = intentEngine.answer(prompt, currentUser, taskManager);
+            if (local != null) {
+                if (session != null) {
+                    session.record(prompt, local);
+                }
+                sample.source = ChatMetrics.Source.LOCAL;
+                return emit(local, onToken);
+            }
+        }
 
         if (apiKey == null || apiKey.trim().isEmpty()) {
             String env = System.getenv("GROQ_API_KEY");
@@ -42,188 +317,574 @@ public class ChatbotService {
         }
 
         if (apiKey.equals("YOUR_API_KEY_HERE") || apiKey == null || apiKey.trim().isEmpty()) {
-            return generateLocalFallbackResponse(prompt, currentUser, taskManager);
+            sample.source = ChatMetrics.Source.OFFLINE;
+            return emit(offlineHelpMessage(), onToken);
+        }
+
+        // Read the version before building the prompt, so a change made meanwhile makes the answer stale
+        long stateVersion = taskManager.getStateVersion();
+        // A follow-up depends on the earlier turns, so only opening questions use the cache
+        boolean cacheable = session == null || session.getTurnCount() == 0;
+        String cached = cacheable ? responseCache.get(currentUser.getEmail(), prompt, stateVersion) : null;
+        if (cached != null) {
+            if (session != null) {
+                session.record(prompt, cached, session.taskDelta());
+            }
+            sample.source = ChatMetrics.Source.CACHE;
+            return emit(cached, onToken);
         }
 
+        StringBuilder response = new StringBuilder();
+        InFlight call = new InFlight();
+        inFlight.add(call);
+        String coalesceKey = cacheable
+                ? currentUser.getEmail() + '\n' + stateVersion + '\n' + ChatResponseCache.normalize(prompt) : null;
+        CompletableFuture<String> shared = null;
         try {
-            String systemPrompt = buildSystemPrompt(currentUser, taskManager);
-
-            // Build the JSON payload manually to avoid extra dependencies
-            String jsonPayload = String.format(
-                    "{\"model\": \"%s\", \"messages\": [{\"role\": \"system\", \"content\": \"%s\"}, {\"role\": \"user\", \"content\": \"%s\"}]}",
-                    MODEL_NAME, escapeJson(systemPrompt), escapeJson(prompt));
-
-            URL url = new URL(API_ENDPOINT);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setRequestProperty("Authorization", "Bearer " + apiKey.trim());
-            connection.setDoOutput(true);
-
-            try (OutputStream os = connection.getOutputStream()) {
-                byte[] input = jsonPayload.getBytes(StandardCharsets.UTF_8);
-                os.write(input, 0, input.length);
-            }
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode >= 200 && responseCode < 300) {
-                StringBuilder response = new StringBuilder();
-                try (BufferedReader br = new BufferedReader(
-                        new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
-                    String responseLine;
-                    while ((responseLine = br.readLine()) != null) {
-                        response.append(responseLine.trim());
+            // The same opening question is already being asked: share that answer instead of asking again
+            while (cacheable) {
+                CompletableFuture<String> mine = new CompletableFuture<>();
+                CompletableFuture<String> leader = PENDING_ANSWERS.putIfAbsent(coalesceKey, mine);
+                if (leader == null) {
+                    shared = mine;
+                    break;
+                }
+                // A separate stage, so cancelling it leaves the leader's future alone
+                CompletableFuture<String> view = leader.thenApply(answer -> answer);
+                call.future = view;
+                if (call.cancelled) {
+                    view.cancel(true);
+                }
+                String answer = view.get();
+                if (answer != null) {
+                    if (session != null) {
+                        session.record(prompt, answer, session.taskDelta());
                     }
+                    sample.source = ChatMetrics.Source.COALESCED;
+                    return emit(answer, onToken);
+                }
+                // The other request failed or was stopped, so ask again ourselves
+            }
+
+            long buildStart = System.nanoTime();
+            String systemPrompt = toolsEnabled
+                    ? contextBuilder.buildSummaryPrompt(currentUser, taskManager)
+                    : contextBuilder.build(prompt, currentUser, taskManager);
+            String userMessage = prompt;
+            ChatSession.TaskDelta delta = null;
+            ArrayList<ChatMessage> messages = new ArrayList<>();
+            if (session != null) {
+                String earlier = session.conversationSummary();
+                if (earlier != null) {
+                    systemPrompt += "\n\nEarlier in this conversation:\n" + earlier;
                 }
-                return extractContentFromJson(response.toString());
+                delta = session.taskDelta();
+                if (delta.text != null) {
+                    userMessage = delta.text + "\n" + prompt;
+                }
+                messages.add(ChatMessage.system(systemPrompt));
+                messages.addAll(session.recentMessages());
             } else {
-                StringBuilder errorResponse = new StringBuilder();
-                try (BufferedReader br = new BufferedReader(
-                        new InputStreamReader(connection.getErrorStream(), StandardCharsets.UTF_8))) {
-                    String errorLine;
-                    while ((errorLine = br.readLine()) != null) {
-                        errorResponse.append(errorLine.trim());
+                messages.add(ChatMessage.system(systemPrompt));
+            }
+            messages.add(ChatMessage.user(userMessage));
+            ChatTools tools = toolsEnabled ? new ChatTools(currentUser, taskManager) : null;
+            sample.buildNanos += System.nanoTime() - buildStart;
+
+            for (int round = 1; ; round++) {
+                // The last round offers no tools, so the model has to answer with what it has
+                boolean offerTools = tools != null && round <= MAX_TOOL_ROUNDS;
+                long serializeStart = System.nanoTime();
+                byte[] payload = buildRequestBody(messages, offerTools);
+                sample.buildNanos += System.nanoTime() - serializeStart;
+                sample.payloadBytes += payload.length;
+                Turn turn = new Turn();
+                long queueStart = System.nanoTime();
+                boolean permitted = acquireCallPermit(call);
+                sample.queueNanos += System.nanoTime() - queueStart;
+                if (!permitted) {
+                    return response.toString();     // cancelled while queued
+                }
+                try {
+                    for (int attempt = 0; ; attempt++) {
+                        long coolDownStart = System.nanoTime();
+                        boolean ready = awaitCoolDown(call);
+                        sample.queueNanos += System.nanoTime() - coolDownStart;
+                        if (!ready) {
+                            return response.toString();
+                        }
+                        long sendStart = System.nanoTime();
+                        HttpResponse<InputStream> httpResponse = send(call, apiKey, payload);
+                        sample.headersNanos += System.nanoTime() - sendStart;
+                        int responseCode = httpResponse.statusCode();
+                        if (responseCode < 200 || responseCode >= 300) {
+                            metrics.recordError("http_" + responseCode);
+                        }
+                        try (InputStream body = httpResponse.body()) {
+                            call.body = body;
+                            if (call.cancelled) {
+                                return response.toString();
+                            }
+                            if (responseCode == HTTP_TOO_MANY_REQUESTS && attempt < MAX_RATE_LIMIT_RETRIES) {
+                                backOff(httpResponse, attempt);
+                                continue;
+                            }
+                            ScheduledFuture<?> watchdog = watchForStall(call);
+                            try {
+                                BufferedReader br = new BufferedReader(
+                                        new InputStreamReader(body, StandardCharsets.UTF_8));
+                                if (responseCode == HTTP_TOO_MANY_REQUESTS) {
+                                    return emit("The AI service is busy right now (rate limited). "
+                                            + "Please try again in a moment.", onToken);
+                                }
+                                if (responseCode < 200 || responseCode >= 300) {
+                                    StringBuilder errorResponse = new StringBuilder();
+                                    String errorLine;
+                                    while ((errorLine = br.readLine()) != null) {
+                                        call.touch();
+                                        errorResponse.append(errorLine.trim());
+                                    }
+                                    return emit("API Error (" + responseCode + "): " + errorResponse.toString(),
+                                            onToken);
+                                }
+                                readEventStream(br, call, turn, response, onToken);
+                            } finally {
+                                watchdog.cancel(false);
+                                call.body = null;
+                            }
+                        }
+                        if (call.stalled) {
+                            return stalledAnswer(response, onToken);
+                        }
+                        break;
                     }
+                } finally {
+                    OUTBOUND_CALLS.release();
+                }
+                if (call.cancelled) {
+                    return response.toString();
+                }
+
+                // A call whose name or id never arrived cannot be run or answered
+                turn.toolCalls.removeIf(toolCall -> toolCall.name == null || toolCall.id == null);
+                if (turn.toolCalls.isEmpty() || !offerTools) {
+                    if (response.length() == 0) {
+                        metrics.recordError("unparsed_response");
+                        return emit("Could not parse AI response.", onToken);
+                    }
+                    if (turn.complete) {
+                        call.answered = true;
+                        if (cacheable) {
+                            responseCache.put(currentUser.getEmail(), prompt, stateVersion, response.toString());
+                        }
+                        if (session != null) {
+                            session.record(prompt, response.toString(), delta);
+                        }
+                    }
+                    return response.toString();
+                }
+
+                // Run the requested lookups locally and send the results back
+                long toolsStart = System.nanoTime();
+                messages.add(ChatMessage.assistant(turn.content.toString(), turn.toolCalls));
+                for (ChatMessage.ToolCall toolCall : turn.toolCalls) {
+                    messages.add(ChatMessage.toolResult(toolCall.id,
+                            tools.execute(toolCall.name, toolCall.arguments.toString())));
                 }
-                return "API Error (" + responseCode + "): " + errorResponse.toString();
+                sample.buildNanos += System.nanoTime() - toolsStart;
             }
 
         } catch (Exception e) {
+            if (call.cancelled) {
+                return response.toString();
+            }
+            if (call.stalled) {
+                return stalledAnswer(response, onToken);
+            }
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            metrics.recordError(cause instanceof java.net.http.HttpTimeoutException
+                    ? "timeout" : cause.getClass().getSimpleName());
+            if (cause instanceof java.net.http.HttpTimeoutException) {
+                return emit("The AI service did not respond in time. Please try again.", onToken);
+            }
             e.printStackTrace();
-            return "Failed to communicate with AI: " + e.getMessage();
+            if (response.length() > 0) {
+                // Keep what already arrived and say why it stopped
+                response.append(emit("\n\n(Connection lost: " + e.getMessage() + ")", onToken));
+                return response.toString();
+            }
+            return emit("Failed to communicate with AI: " + cause.getMessage(), onToken);
+        } finally {
+            inFlight.remove(call);
+            if (shared != null) {
+                // Remove before completing, so a waiter told "no answer" can take over as leader
+                PENDING_ANSWERS.remove(coalesceKey, shared);
+                shared.complete(call.answered ? response.toString() : null);
+            }
         }
     }
 
     /**
-     * Builds the system context with tasks.
+     * Waits, in arrival order, for one of the MAX_CONCURRENT_CALLS permits.
+     * The permit is kept through 429 retries, so a request that was told to
+     * back off does not lose its place. Returns false (holding no permit) if
+     * the call was cancelled meanwhile.
      */
-    private String buildSystemPrompt(User currentUser, TaskManager taskManager) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("You are a helpful task management assistant for the user '").append(currentUser.getFullName())
-                .append("'.\n");
-        sb.append("Here is the current task data:\n");
+    private static boolean acquireCallPermit(InFlight call) {
+        call.waiter = Thread.currentThread();
+        try {
+            if (call.cancelled) {
+                return false;
+            }
+            OUTBOUND_CALLS.acquire();
+        } catch (InterruptedException e) {
+            return false;   // interrupted by InFlight.cancel()
+        } finally {
+            call.waiter = null;
+        }
+        if (call.cancelled) {
+            OUTBOUND_CALLS.release();
+            return false;
+        }
+        return true;
+    }
 
-        ArrayList<Task> assignedTasks = taskManager.getFilteredTasks(null, null, currentUser.getEmail());
-        sb.append("Tasks assigned to me:\n");
-        if (assignedTasks.isEmpty()) {
-            sb.append("- None\n");
-        } else {
-            for (Task t : assignedTasks) {
-                sb.append("- [").append(t.getStatus()).append("] ").append(t.getTitle())
-                        .append(" (Priority: ").append(t.getPriority()).append(", Due: ")
-                        .append(t.getFormattedDueDate()).append(")\n");
+    /**
+     * Sleeps until any 429 cool-down has passed. Returns false if the call
+     * was cancelled meanwhile.
+     */
+    private static boolean awaitCoolDown(InFlight call) {
+        call.waiter = Thread.currentThread();
+        try {
+            long wait;
+            while ((wait = rateLimitedUntil - System.currentTimeMillis()) > 0) {
+                if (call.cancelled) {
+                    return false;
+                }
+                Thread.sleep(wait);
             }
+        } catch (InterruptedException e) {
+            return false;
+        } finally {
+            call.waiter = null;
         }
+        return !call.cancelled;
+    }
 
-        ArrayList<Task> allTasks = taskManager.getAllTasks();
-        sb.append("\nAll Pending Tasks (not assigned to me):\n");
-        boolean hasOtherPending = false;
-        for (Task t : allTasks) {
-            if (!Task.STATUS_DONE.equals(t.getStatus())
-                    && (t.getAssigneeEmail() == null || !t.getAssigneeEmail().equals(currentUser.getEmail()))) {
-                sb.append("- [").append(t.getStatus()).append("] ").append(t.getTitle())
-                        .append(" (Priority: ").append(t.getPriority()).append(", Due: ")
-                        .append(t.getFormattedDueDate())
-                        .append(", Assignee: ").append(t.isAssigned() ? t.getAssigneeName() : "Unassigned")
-                        .append(")\n");
-                hasOtherPending = true;
+    /**
+     * Starts a cool-down shared by every request after an HTTP 429: the
+     * server's Retry-After if given, otherwise exponential backoff
+     * (1 s, 2 s, 4 s ...) with jitter so waiting clients do not retry in step.
+     */
+    private static void backOff(HttpResponse<?> httpResponse, int attempt) {
+        long delayMs = -1;
+        String retryAfter = httpResponse.headers().firstValue("Retry-After").orElse(null);
+        if (retryAfter != null) {
+            try {
+                delayMs = (long) (Double.parseDouble(retryAfter.trim()) * 1000);
+            } catch (NumberFormatException e) {
+                // An HTTP date or something unexpected; use our own backoff
             }
         }
-        if (!hasOtherPending) {
-            sb.append("- None\n");
+        if (delayMs < 0) {
+            delayMs = (RATE_LIMIT_BASE_DELAY_MS << attempt) + ThreadLocalRandom.current().nextLong(250);
         }
+        delayMs = Math.min(delayMs, RATE_LIMIT_MAX_DELAY_MS);
+        synchronized (ChatbotService.class) {
+            rateLimitedUntil = Math.max(rateLimitedUntil, System.currentTimeMillis() + delayMs);
+        }
+        System.err.println("Warning: Chat API rate limit hit; retrying in " + delayMs + " ms");
+    }
 
-        sb.append(
-                "\nPlease answer the user's questions based on this data. Be concise, friendly, and helpful. If asked what to do first, recommend based on Priority (High first) and Due Dates (earliest first).");
-        return sb.toString();
+    /**
+     * Aborts the call's response stream once nothing has arrived on it for
+     * idleTimeout; HttpRequest.timeout only covers the wait for headers.
+     */
+    private ScheduledFuture<?> watchForStall(InFlight call) {
+        long idleNanos = idleTimeout.toNanos();
+        long periodMs = Math.max(100L, idleTimeout.toMillis() / 4);
+        call.touch();
+        return STREAM_WATCHDOG.scheduleWithFixedDelay(() -> {
+            if (System.nanoTime() - call.lastActivityNanos > idleNanos) {
+                call.abortStalled();
+            }
+        }, periodMs, periodMs, TimeUnit.MILLISECONDS);
     }
 
     /**
-     * Very simple fallback if no API key is provided.
+     * Ends an answer whose stream went silent, keeping any text that arrived.
      */
-    private String generateLocalFallbackResponse(String prompt, User currentUser, TaskManager taskManager) {
-        String p = prompt.toLowerCase();
+    private String stalledAnswer(StringBuilder response, Consumer<String> onToken) {
+        metrics.recordError("idle_timeout");
+        String notice = "The AI service stopped responding. Please try again.";
+        if (response.length() > 0) {
+            response.append(emit("\n\n(" + notice + ")", onToken));
+            return response.toString();
+        }
+        return emit(notice, onToken);
+    }
 
-        if (p.contains("assigned to me") || p.contains("my task")) {
-            ArrayList<Task> tasks = taskManager.getFilteredTasks(null, null, currentUser.getEmail());
-            if (tasks.isEmpty())
-                return "You have no tasks assigned to you right now. (Configure an API Key for full AI capabilities!)";
-            StringBuilder sb = new StringBuilder("Here are your assigned tasks:\n");
-            for (Task t : tasks) {
-                sb.append("- ").append(t.getTitle()).append("\n");
-            }
-            sb.append("\n(Configure an API Key for full AI capabilities!)");
-            return sb.toString();
+    /**
+     * Posts one chat completion request and waits for the response headers.
+     */
+    private HttpResponse<InputStream> send(InFlight call, String apiKey, byte[] jsonPayload) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(endpoint))
+                .timeout(responseTimeout)
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + apiKey.trim())
+                .header("Accept", "text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(jsonPayload))
+                .build();
+
+        CompletableFuture<HttpResponse<InputStream>> pending =
+                client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        call.future = pending;
+        if (call.cancelled) {
+            pending.cancel(true);
+        }
+        return pending.get();
+    }
+
+    /**
+     * What the model sent back in one round: streamed text and/or tool calls.
+     */
+    private static final class Turn {
+        final StringBuilder content = new StringBuilder();
+        final ArrayList<ChatMessage.ToolCall> toolCalls = new ArrayList<>();
+        boolean complete;     // the stream ended with "[DONE]"
+    }
+
+    /**
+     * One running request: the pending response until headers arrive, then the body stream.
+     */
+    private static final class InFlight {
+        volatile boolean cancelled;
+        volatile CompletableFuture<?> future;
+        volatile InputStream body;
+        volatile Thread waiter;         // set while queued for a permit or cooling down
+        volatile boolean answered;      // a complete answer was received
+        volatile boolean stalled;       // the stream was aborted for going silent
+        volatile long lastActivityNanos;
+
+        void touch() {
+            lastActivityNanos = System.nanoTime();
         }
 
-        if (p.contains("due") || p.contains("deadline")) {
-            int overdue = taskManager.getOverdueCount();
-            return "You have " + overdue
-                    + " overdue tasks across the project. To get a detailed breakdown of due dates, please configure your API Key so the AI can analyze your tasks.";
+        void cancel() {
+            cancelled = true;
+            Thread queued = waiter;
+            if (queued != null) {
+                queued.interrupt();
+            }
+            CompletableFuture<?> pending = future;
+            if (pending != null) {
+                pending.cancel(true);
+            }
+            closeBody();
         }
 
-        if (p.contains("first") || p.contains("priority")) {
-            return "To get AI-driven recommendations on what to prioritize based on deadlines and high priority, please configure your API Key. Otherwise, just sort the dashboard by 'High' priority!";
+        void abortStalled() {
+            if (body != null) {
+                stalled = true;
+                closeBody();
+            }
         }
 
-        return "I am running in local fallback mode because no API Key was provided. Please enter your API Key at the bottom to enable AI features! Try asking about your assigned tasks.";
+        private void closeBody() {
+            InputStream stream = body;
+            if (stream != null) {
+                try {
+                    stream.close();     // unblocks the reader and aborts the exchange
+                } catch (IOException ignored) {
+                    // Closing is best effort
+                }
+            }
+        }
     }
 
     /**
-     * Very basic manual JSON string escape to avoid external dependencies.
+     * Reads server-sent events until "[DONE]" or end of stream. Each
+     * "data:" line carries a chat completion chunk: its delta content is
+     * appended to {@code response} and passed to onToken, and any tool
+     * call pieces are collected into the turn.
      */
-    private String escapeJson(String text) {
-        if (text == null)
-            return "";
-        return text.replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\b", "\\b")
-                .replace("\f", "\\f")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r")
-                .replace("\t", "\\t");
+    private void readEventStream(BufferedReader reader, InFlight call, Turn turn, StringBuilder response,
+                                 Consumer<String> onToken) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            call.touch();
+            if (!line.startsWith("data:")) {
+                continue;   // blank separators, ": keep-alive" comments, event/id fields
+            }
+            String data = line.substring(5).trim();
+            if (STREAM_DONE.equals(data)) {
+                turn.complete = true;
+                return;
+            }
+            String token;
+            try {
+                token = readChunk(new JsonReader(new StringReader(data)), turn);
+            } catch (IOException e) {
+                System.err.println("Warning: Skipping unreadable stream chunk: " + e.getMessage());
+                continue;
+            }
+            if (token != null && !token.isEmpty()) {
+                turn.content.append(token);
+                response.append(token);
+                onToken.accept(token);
+            }
+        }
     }
 
     /**
-     * Basic manual JSON content extraction for the OpenAI format response.
-     * Looks for "content":"..." and extracts the value.
+     * Serializes the chat completion request straight to UTF-8 bytes.
      */
-    private String extractContentFromJson(String json) {
-        String searchStr = "\"content\": \"";
-        int start = json.indexOf(searchStr);
-        if (start == -1) {
-            // Alternative without space
-            searchStr = "\"content\":\"";
-            start = json.indexOf(searchStr);
-            if (start == -1)
-                return "Could not parse AI response.";
+    private static byte[] buildRequestBody(List<ChatMessage> messages, boolean offerTools) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        Writer out = new OutputStreamWriter(bytes, StandardCharsets.UTF_8);
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject()
+                .name("model").value(MODEL_NAME)
+                .name("stream").value(true)
+                .name("messages").beginArray();
+        for (ChatMessage message : messages) {
+            message.write(json);
         }
+        json.endArray();
+        if (offerTools) {
+            json.name("tools");
+            ChatTools.writeDefinitions(json);
+            json.name("tool_choice").value("auto");
+        }
+        json.endObject();
+        json.flush();
+        return bytes.toByteArray();
+    }
 
-        start += searchStr.length();
+    /**
+     * Reads one chat completion (or stream chunk). Returns the text of
+     * choices[].message.content or choices[].delta.content, or null if it
+     * has none (e.g. a chunk that only carries the role), and adds any
+     * choices[].message/delta.tool_calls to the turn.
+     */
+    private static String readChunk(JsonReader reader, Turn turn) throws IOException {
+        StringBuilder content = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!"choices".equals(reader.nextName()) || reader.peek() != JsonReader.Kind.ARRAY) {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String field = reader.nextName();
+                    if (!("message".equals(field) || "delta".equals(field))
+                            || reader.peek() != JsonReader.Kind.OBJECT) {
+                        reader.skipValue();
+                        continue;
+                    }
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String name = reader.nextName();
+                        if ("content".equals(name) && reader.peek() == JsonReader.Kind.STRING) {
+                            if (content == null) {
+                                content = new StringBuilder();
+                            }
+                            content.append(reader.nextString());
+                        } else if ("tool_calls".equals(name) && reader.peek() == JsonReader.Kind.ARRAY) {
+                            reader.beginArray();
+                            while (reader.hasNext()) {
+                                readToolCall(reader, turn);
+                            }
+                            reader.endArray();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                }
+                reader.endObject();
+            }
+            reader.endArray();
+        }
+        reader.endObject();
+        return content != null ? content.toString() : null;
+    }
 
-        // Find the unescaped closing quote
-        int end = -1;
-        for (int i = start; i < json.length(); i++) {
-            if (json.charAt(i) == '\"' && json.charAt(i - 1) != '\\') {
-                end = i;
-                break;
+    /**
+     * Merges one tool_calls entry into the turn. Streamed entries carry an
+     * "index"; later pieces of the same call only add argument text.
+     */
+    /**
+     * Merges one streamed tool-call fragment into the turn. The index comes
+     * from the server, so fragments with an index that is not a number, is
+     * negative, skips ahead of the calls seen so far or passes MAX_TOOL_CALLS
+     * are dropped.
+     */
+    private static void readToolCall(JsonReader reader, Turn turn) throws IOException {
+        int index = turn.toolCalls.size();
+        String id = null;
+        String name = null;
+        StringBuilder arguments = new StringBuilder();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if ("index".equals(field) && reader.peek() == JsonReader.Kind.NUMBER) {
+                try {
+                    index = Integer.parseInt(reader.nextNumber());
+                } catch (NumberFormatException e) {
+                    index = -1;
+                }
+            } else if ("id".equals(field) && reader.peek() == JsonReader.Kind.STRING) {
+                id = reader.nextString();
+            } else if ("function".equals(field) && reader.peek() == JsonReader.Kind.OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String part = reader.nextName();
+                    if ("name".equals(part) && reader.peek() == JsonReader.Kind.STRING) {
+                        name = reader.nextString();
+                    } else if ("arguments".equals(part) && reader.peek() == JsonReader.Kind.STRING) {
+                        arguments.append(reader.nextString());
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else {
+                reader.skipValue();
             }
         }
+        reader.endObject();
 
-        if (end == -1)
-            return "Could not parse AI response.";
+        if (index < 0 || index > turn.toolCalls.size() || index >= MAX_TOOL_CALLS) {
+            return;
+        }
+        if (index == turn.toolCalls.size()) {
+            turn.toolCalls.add(new ChatMessage.ToolCall());
+        }
+        ChatMessage.ToolCall call = turn.toolCalls.get(index);
+        if (id != null) {
+            call.id = id;
+        }
+        if (name != null) {
+            call.name = name;
+        }
+        call.arguments.append(arguments);
+    }
 
-        String extracted = json.substring(start, end);
-        return unescapeJson(extracted);
+    private static String emit(String text, Consumer<String> onToken) {
+        onToken.accept(text);
+        return text;
     }
 
-    private String unescapeJson(String text) {
-        return text.replace("\\n", "\n")
-                .replace("\\\"", "\"")
-                .replace("\\\\", "\\")
-                .replace("\\t", "\t")
-                .replace("\\r", "\r")
-                .replace("\\b", "\b")
-                .replace("\\f", "\f");
+    /**
+     * Reply when no API key is configured and no local intent matched.
+     */
+    private static String offlineHelpMessage() {
+        return "I can answer questions about your tasks locally, for example \"What are my overdue tasks?\", "
+                + "\"What's due this week?\", \"Which high priority tasks are unassigned?\" or "
+                + "\"What should I do first?\". For anything else, please enter your API Key to enable AI features!";
     }
 }
@@ -0,0 +1,99 @@
+package palantier.service;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+
+import java.util.Date;
+
+/**
+ * Shared read/write helpers for the hand-written BSON codecs.
+ *
+ * Keeps the null handling and numeric widening rules in one place so every
+ * codec reads the same stored layout the old Document-based code produced.
+ */
+final class CodecSupport {
+
+    private CodecSupport() {
+    }
+
+    static void writeString(BsonWriter writer, String name, String value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeString(name, value);
+        }
+    }
+
+    static void writeEpochMs(BsonWriter writer, String name, Date value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeInt64(name, value.getTime());
+        }
+    }
+
+    /**
+     * Reads the current string value, or null for BSON null / non-string values.
+     */
+    static String readString(BsonReader reader) {
+        BsonType type = reader.getCurrentBsonType();
+        if (type == BsonType.STRING) {
+            return reader.readString();
+        }
+        if (type == BsonType.NULL) {
+            reader.readNull();
+        } else {
+            reader.skipValue();
+        }
+        return null;
+    }
+
+    /**
+     * Reads the current epoch-millisecond value as a Date, or null when absent.
+     * Accepts int32/int64/double so older or hand-edited documents still load.
+     */
+    static Date readEpochMs(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT64:
+                return new Date(reader.readInt64());
+            case INT32:
+                return new Date(reader.readInt32());
+            case DOUBLE:
+                return new Date((long) reader.readDouble());
+            case DATE_TIME:
+                return new Date(reader.readDateTime());
+            case NULL:
+                reader.readNull();
+                return null;
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    /**
+     * Reads the current numeric value as a long, or 0 when absent.
+     */
+    static long readLong(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT64:
+                return reader.readInt64();
+            case INT32:
+                return reader.readInt32();
+            case DOUBLE:
+                return (long) reader.readDouble();
+            default:
+                reader.skipValue();
+                return 0L;
+        }
+    }
+
+    static boolean readBoolean(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.BOOLEAN) {
+            return reader.readBoolean();
+        }
+        reader.skipValue();
+        return false;
+    }
+}
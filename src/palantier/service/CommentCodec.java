@@ -0,0 +1,72 @@
+package palantier.service;
+
+import palantier.model.Comment;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.Date;
+
+/**
+ * CommentCodec — Encodes a Comment straight to / from BSON.
+ *
+ * Field names match the layout TaskManager previously built by hand, so
+ * existing task documents load unchanged.
+ */
+class CommentCodec implements Codec<Comment> {
+
+    @Override
+    public void encode(BsonWriter writer, Comment comment, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        CodecSupport.writeString(writer, "id", comment.getId());
+        CodecSupport.writeString(writer, "author_name", comment.getAuthorName());
+        CodecSupport.writeString(writer, "author_email", comment.getAuthorEmail());
+        CodecSupport.writeString(writer, "text", comment.getText());
+        CodecSupport.writeEpochMs(writer, "timestamp_epoch_ms", comment.getTimestamp());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Comment decode(BsonReader reader, DecoderContext decoderContext) {
+        String id = null;
+        String authorName = null;
+        String authorEmail = null;
+        String text = null;
+        Date timestamp = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "id":
+                    id = CodecSupport.readString(reader);
+                    break;
+                case "author_name":
+                    authorName = CodecSupport.readString(reader);
+                    break;
+                case "author_email":
+                    authorEmail = CodecSupport.readString(reader);
+                    break;
+                case "text":
+                    text = CodecSupport.readString(reader);
+                    break;
+                case "timestamp_epoch_ms":
+                    timestamp = CodecSupport.readEpochMs(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new Comment(id, authorName, authorEmail, text, timestamp != null ? timestamp : new Date(0L));
+    }
+
+    @Override
+    public Class<Comment> getEncoderClass() {
+        return Comment.class;
+    }
+}
@@ -1,20 +1,50 @@
 package palantier.service;
 
 import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Central MongoDB database connection helper.
+ *
+ * The database handle carries a CodecRegistry with hand-written codecs for
+ * the model classes, so collections can be typed as Task / Notification /
+ * User and read or written without going through Document maps.
+ *
+ * Also tracks whether the server is reachable. Timeouts are short so an
+ * unreachable server fails fast; callers then mark the connection offline
+ * and work from the local cache until checkConnection() succeeds again,
+ * at which point reconnect listeners replay queued changes.
  */
 public class DatabaseManager {
 
     private static MongoClient mongoClient;
     private static MongoDatabase database;
+    private static CodecRegistry codecRegistry;
+
+    // Fail fast instead of blocking the UI for the driver's 30 s default
+    private static final int SERVER_SELECTION_TIMEOUT_MS = 2000;
+    private static final int CONNECT_TIMEOUT_MS = 2000;
+
+    private static volatile boolean online = true;
+    private static final List<Runnable> reconnectListeners = new CopyOnWriteArrayList<>();
 
     public static synchronized void initializeDatabase() {
         if (mongoClient == null) {
-            mongoClient = new MongoClient("localhost", 27017);
-            database = mongoClient.getDatabase("palantier_db");
+            MongoClientOptions options = MongoClientOptions.builder()
+                    .serverSelectionTimeout(SERVER_SELECTION_TIMEOUT_MS)
+                    .connectTimeout(CONNECT_TIMEOUT_MS)
+                    .build();
+            mongoClient = new MongoClient(new ServerAddress("localhost", 27017), options);
+            database = mongoClient.getDatabase("palantier_db").withCodecRegistry(getCodecRegistry());
         }
     }
 
@@ -24,4 +54,84 @@ public class DatabaseManager {
         }
         return database;
     }
+
+    /**
+     * Returns the registry of model codecs, falling back to the driver defaults
+     * so plain Document collections keep working.
+     */
+    public static synchronized CodecRegistry getCodecRegistry() {
+        if (codecRegistry == null) {
+            CommentCodec commentCodec = new CommentCodec();
+            codecRegistry = CodecRegistries.fromRegistries(
+                    CodecRegistries.fromCodecs(
+                            commentCodec,
+                            new TaskCodec(commentCodec),
+                            new NotificationCodec(),
+                            new UserCodec()),
+                    MongoClient.getDefaultCodecRegistry());
+        }
+        return codecRegistry;
+    }
+
+    /**
+     * Returns a collection whose documents are decoded directly into the given model type.
+     */
+    public static <T> MongoCollection<T> getCollection(String name, Class<T> type) {
+        return getDatabase().getCollection(name, type);
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // CONNECTIVITY
+    // ══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Last known reachability; false after a failed operation until a ping succeeds.
+     */
+    public static boolean isOnline() {
+        return online;
+    }
+
+    /**
+     * Records that an operation could not reach the server.
+     */
+    public static void markOffline() {
+        online = false;
+    }
+
+    /**
+     * Pings the server and updates the online flag. On the transition from
+     * offline to online every reconnect listener runs on the calling thread.
+     *
+     * @return true if the server answered
+     */
+    public static boolean checkConnection() {
+        boolean wasOnline = online;
+        try {
+            getDatabase().runCommand(new Document("ping", 1));
+        } catch (Exception e) {
+            online = false;
+            return false;
+        }
+        online = true;
+        if (!wasOnline) {
+            for (Runnable listener : reconnectListeners) {
+                listener.run();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registers a callback run when the server becomes reachable again.
+     */
+    public static void addReconnectListener(Runnable listener) {
+        reconnectListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a callback added with addReconnectListener (pass the same instance).
+     */
+    public static void removeReconnectListener(Runnable listener) {
+        reconnectListeners.remove(listener);
+    }
 }
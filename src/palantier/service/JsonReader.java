@@ -0,0 +1,299 @@
+package palantier.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal pull-style JSON reader for the chat API responses.
+ *
+ * Reads tokens one at a time from a Reader (or a UTF-8 InputStream) through
+ * a small buffer, so a response is decoded in a single pass without first
+ * being collected into a String. Escapes, including {@code \\uXXXX} and
+ * surrogate pairs, are decoded as the string is read. Values the caller
+ * does not need are skipped without being materialized.
+ *
+ * Malformed input raises an IOException.
+ */
+final class JsonReader {
+
+    /**
+     * Kind of the next value, as reported by peek().
+     */
+    enum Kind {
+        OBJECT, ARRAY, STRING, NUMBER, BOOLEAN, NULL, END
+    }
+
+    private final Reader in;
+    private final char[] buffer = new char[1024];
+    private int pos;
+    private int limit;
+
+    JsonReader(Reader in) {
+        this.in = in;
+    }
+
+    JsonReader(InputStream in) {
+        this(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the kind of the next value without consuming it; END at a
+     * closing bracket or the end of input.
+     */
+    Kind peek() throws IOException {
+        int c = peekSignificant();
+        switch (c) {
+            case '{':
+                return Kind.OBJECT;
+            case '[':
+                return Kind.ARRAY;
+            case '"':
+                return Kind.STRING;
+            case 't':
+            case 'f':
+                return Kind.BOOLEAN;
+            case 'n':
+                return Kind.NULL;
+            case '}':
+            case ']':
+            case -1:
+                return Kind.END;
+            default:
+                return Kind.NUMBER;
+        }
+    }
+
+    void beginObject() throws IOException {
+        expect('{');
+    }
+
+    void endObject() throws IOException {
+        expect('}');
+    }
+
+    void beginArray() throws IOException {
+        expect('[');
+    }
+
+    void endArray() throws IOException {
+        expect(']');
+    }
+
+    /**
+     * True if the current object or array has another member.
+     */
+    boolean hasNext() throws IOException {
+        int c = peekSignificant();
+        return c != '}' && c != ']' && c != -1;
+    }
+
+    /**
+     * Reads an object member name and the colon after it.
+     */
+    String nextName() throws IOException {
+        String name = nextString();
+        expect(':');
+        return name;
+    }
+
+    /**
+     * Reads a string value, or returns null for a JSON null.
+     */
+    String nextString() throws IOException {
+        int c = peekSignificant();
+        if (c == 'n') {
+            readLiteral("null");
+            return null;
+        }
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            // Copy unescaped runs straight from the buffer
+            int start = pos;
+            while (pos < limit) {
+                char ch = buffer[pos];
+                if (ch == '"' || ch == '\\') {
+                    break;
+                }
+                pos++;
+            }
+            sb.append(buffer, start, pos - start);
+            if (pos == limit) {
+                if (!fill()) {
+                    throw new IOException("Malformed JSON: unterminated string");
+                }
+                continue;
+            }
+            char ch = buffer[pos++];
+            if (ch == '"') {
+                return sb.toString();
+            }
+            sb.append(readEscape());
+        }
+    }
+
+    boolean nextBoolean() throws IOException {
+        if (peekSignificant() == 't') {
+            readLiteral("true");
+            return true;
+        }
+        readLiteral("false");
+        return false;
+    }
+
+    /**
+     * Reads a number value as text (e.g. "42", "-1.5e3").
+     */
+    String nextNumber() throws IOException {
+        peekSignificant();
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = peekChar()) != -1 && "+-0123456789.eE".indexOf(c) >= 0) {
+            sb.append((char) c);
+            pos++;
+        }
+        if (sb.length() == 0) {
+            throw new IOException("Malformed JSON: unexpected '" + (char) peekChar() + "'");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Skips the next value, including any nested objects and arrays.
+     */
+    void skipValue() throws IOException {
+        switch (peek()) {
+            case OBJECT:
+                beginObject();
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+                break;
+            case ARRAY:
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+                break;
+            case STRING:
+            case NULL:
+                nextString();
+                break;
+            case BOOLEAN:
+                nextBoolean();
+                break;
+            case NUMBER:
+                nextNumber();
+                break;
+            default:
+                throw new IOException("Malformed JSON: value expected");
+        }
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ══════════════════════════════════════════════════════════════════════
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            pos = 0;
+            limit = 0;
+            return false;
+        }
+        pos = 0;
+        limit = read;
+        return true;
+    }
+
+    private int peekChar() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos];
+    }
+
+    private int readChar() throws IOException {
+        int c = peekChar();
+        if (c == -1) {
+            throw new IOException("Malformed JSON: unexpected end of input");
+        }
+        pos++;
+        return c;
+    }
+
+    /**
+     * Skips whitespace and the comma between members, and returns the next
+     * character without consuming it.
+     */
+    private int peekSignificant() throws IOException {
+        while (true) {
+            int c = peekChar();
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == ',') {
+                pos++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = peekSignificant();
+        if (c != expected) {
+            throw new IOException("Malformed JSON: expected '" + expected + "' but found "
+                    + (c == -1 ? "end of input" : "'" + (char) c + "'"));
+        }
+        pos++;
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (readChar() != literal.charAt(i)) {
+                throw new IOException("Malformed JSON: expected " + literal);
+            }
+        }
+    }
+
+    /**
+     * Decodes the escape after a backslash. \\uXXXX yields one UTF-16 unit;
+     * a surrogate pair arrives as two consecutive escapes and so decodes
+     * correctly when both are appended.
+     */
+    private char readEscape() throws IOException {
+        int c = readChar();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(readChar(), 16);
+                    if (digit < 0) {
+                        throw new IOException("Malformed JSON: bad \\u escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            default:
+                throw new IOException("Malformed JSON: bad escape \\" + (char) c);
+        }
+    }
+}
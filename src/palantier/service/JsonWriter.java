@@ -0,0 +1,153 @@
+package palantier.service;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Minimal streaming JSON writer for the chat API requests.
+ *
+ * Values are escaped in a single pass straight into the underlying Writer,
+ * so a large prompt is never copied into intermediate escaped strings.
+ * Commas are inserted automatically; the caller is responsible for
+ * balancing begin/end calls.
+ */
+final class JsonWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+
+    // True once a value has been written at the current level, so the next one needs a comma
+    private boolean needsComma;
+
+    JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    JsonWriter beginObject() throws IOException {
+        separate();
+        out.write('{');
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter endObject() throws IOException {
+        out.write('}');
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter beginArray() throws IOException {
+        separate();
+        out.write('[');
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter endArray() throws IOException {
+        out.write(']');
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * Writes an object member name; the next call writes its value.
+     */
+    JsonWriter name(String name) throws IOException {
+        separate();
+        writeQuoted(name);
+        out.write(':');
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter value(String value) throws IOException {
+        separate();
+        if (value == null) {
+            out.write("null");
+        } else {
+            writeQuoted(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter value(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter value(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * Writes a number; NaN and infinities, which JSON cannot express, as null.
+     */
+    JsonWriter value(double value) throws IOException {
+        separate();
+        out.write(Double.isNaN(value) || Double.isInfinite(value) ? "null" : Double.toString(value));
+        needsComma = true;
+        return this;
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ══════════════════════════════════════════════════════════════════════
+
+    private void separate() throws IOException {
+        if (needsComma) {
+            out.write(',');
+        }
+    }
+
+    /**
+     * Writes the string in quotes, copying unescaped runs in one write each.
+     */
+    private void writeQuoted(String text) throws IOException {
+        out.write('"');
+        int runStart = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            String escape;
+            if (c == '"') {
+                escape = "\\\"";
+            } else if (c == '\\') {
+                escape = "\\\\";
+            } else if (c == '\n') {
+                escape = "\\n";
+            } else if (c == '\r') {
+                escape = "\\r";
+            } else if (c == '\t') {
+                escape = "\\t";
+            } else if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                escape = null;      // other control characters and JS line separators, as hex escapes
+            } else {
+                continue;
+            }
+            out.write(text, runStart, i - runStart);
+            if (escape != null) {
+                out.write(escape);
+            } else {
+                out.write("\\u");
+                out.write(HEX[(c >> 12) & 0xF]);
+                out.write(HEX[(c >> 8) & 0xF]);
+                out.write(HEX[(c >> 4) & 0xF]);
+                out.write(HEX[c & 0xF]);
+            }
+            runStart = i + 1;
+        }
+        out.write(text, runStart, length - runStart);
+        out.write('"');
+    }
+}
@@ -0,0 +1,435 @@
+package palantier.service;
+
+import palantier.model.Task;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * LocalCache — On-disk copy of the data the desktop client needs offline.
+ *
+ * Keeps, under ~/.palantier:
+ * - snapshots of tasks, users and notifications (a header document followed
+ *   by one BSON document per model, written with the model codecs), used when
+ *   MongoDB is unreachable and to warm-start the next launch. Snapshots are
+ *   memory-mapped on read and decoded in place, without copying into heap
+ *   buffers;
+ * - a durable task outbox: an append-only log of task mutations made while
+ *   offline, fsync'ed on every append and replayed once the database is back.
+ */
+public class LocalCache {
+
+    public static final String OP_INSERT = "insert";
+    public static final String OP_SAVE = "save";
+    public static final String OP_DELETE = "delete";
+
+    private static final String OUTBOX_FILE = "tasks.outbox";
+
+    private final Path directory;
+
+    /**
+     * One queued task mutation. For inserts and saves {@code task} holds the
+     * full state after the change; deletes only carry the id.
+     */
+    public static class OutboxEntry {
+        public final String op;
+        public final String taskId;
+        public final long expectedVersion;
+        public final Task task;
+
+        public OutboxEntry(String op, String taskId, long expectedVersion, Task task) {
+            this.op = op;
+            this.taskId = taskId;
+            this.expectedVersion = expectedVersion;
+            this.task = task;
+        }
+    }
+
+    /**
+     * Snapshot contents plus the sync watermark that was current when it was written.
+     */
+    public static class Snapshot<T> {
+        public final List<T> items;
+        public final long watermark;
+
+        Snapshot(List<T> items, long watermark) {
+            this.items = items;
+            this.watermark = watermark;
+        }
+    }
+
+    public LocalCache() {
+        this(Paths.get(System.getProperty("user.home"), ".palantier"));
+    }
+
+    public LocalCache(Path directory) {
+        this.directory = directory;
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // SNAPSHOTS
+    // ══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Writes a new generation of the named snapshot (temp file, then atomic
+     * rename) and removes older generations. Each write gets a new file name
+     * because a file that is still memory-mapped cannot be replaced on Windows.
+     */
+    public <T> void writeSnapshot(String name, Collection<T> items, Class<T> type, long watermark) {
+        Codec<T> codec = DatabaseManager.getCodecRegistry().get(type);
+        EncoderContext context = EncoderContext.builder().build();
+        try {
+            Files.createDirectories(directory);
+            long generation = Math.max(System.currentTimeMillis(), latestGeneration(name) + 1);
+            Path target = snapshotFile(name, generation);
+            Path temp = directory.resolve(target.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                BasicOutputBuffer buffer = new BasicOutputBuffer();
+                try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+                    writer.writeStartDocument();
+                    writer.writeInt64("watermark", watermark);
+                    writer.writeInt32("count", items.size());
+                    writer.writeEndDocument();
+                }
+                for (T item : items) {
+                    try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+                        codec.encode(writer, item, context);
+                    }
+                    if (buffer.getSize() >= FLUSH_THRESHOLD) {
+                        drain(buffer, channel);
+                    }
+                }
+                drain(buffer, channel);
+                channel.force(false);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            deleteGenerationsBefore(name, generation);
+        } catch (IOException e) {
+            System.err.println("Warning: Could not write local " + name + " snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the named snapshot, or an empty one if it does not exist or is unreadable.
+     * The file is memory-mapped and each document is decoded from a slice of the mapping.
+     */
+    public <T> Snapshot<T> readSnapshot(String name, Class<T> type) {
+        ArrayList<T> items = new ArrayList<>();
+        long generation = latestGeneration(name);
+        if (generation < 0) {
+            return new Snapshot<>(items, 0L);
+        }
+        Path file = snapshotFile(name, generation);
+        Codec<T> codec = DatabaseManager.getCodecRegistry().get(type);
+        DecoderContext context = DecoderContext.builder().build();
+        long watermark = 0L;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer header = nextDocument(mapped);
+            if (header == null) {
+                return new Snapshot<>(items, 0L);
+            }
+            int count = 0;
+            try (BsonBinaryReader reader = new BsonBinaryReader(header)) {
+                reader.readStartDocument();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    String field = reader.readName();
+                    if ("watermark".equals(field)) {
+                        watermark = CodecSupport.readLong(reader);
+                    } else if ("count".equals(field)) {
+                        count = (int) CodecSupport.readLong(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.readEndDocument();
+            }
+            items.ensureCapacity(count);
+            ByteBuffer doc;
+            while ((doc = nextDocument(mapped)) != null) {
+                try (BsonBinaryReader reader = new BsonBinaryReader(doc)) {
+                    items.add(codec.decode(reader, context));
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Warning: Could not read local " + name + " snapshot: " + e.getMessage());
+            return new Snapshot<>(new ArrayList<>(), 0L);
+        }
+        return new Snapshot<>(items, watermark);
+    }
+
+    /**
+     * Returns true if a snapshot with the given name has been written.
+     */
+    public boolean hasSnapshot(String name) {
+        return latestGeneration(name) >= 0;
+    }
+
+    private Path snapshotFile(String name, long generation) {
+        return directory.resolve(name + "." + generation + ".snapshot");
+    }
+
+    /**
+     * Returns the newest snapshot generation on disk, or -1 if there is none.
+     */
+    private long latestGeneration(String name) {
+        long latest = -1L;
+        if (!Files.isDirectory(directory)) {
+            return latest;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, name + ".*.snapshot")) {
+            for (Path file : files) {
+                latest = Math.max(latest, parseGeneration(name, file));
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Could not list local snapshots: " + e.getMessage());
+        }
+        return latest;
+    }
+
+    /**
+     * Best-effort cleanup; a generation that is still mapped is removed on a later write.
+     */
+    private void deleteGenerationsBefore(String name, long generation) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, name + ".*.snapshot")) {
+            for (Path file : files) {
+                long fileGeneration = parseGeneration(name, file);
+                if (fileGeneration >= 0 && fileGeneration < generation) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException ignored) {
+                        // still mapped by this process
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Could not clean up local snapshots: " + e.getMessage());
+        }
+    }
+
+    private static long parseGeneration(String name, Path file) {
+        String fileName = file.getFileName().toString();
+        String middle = fileName.substring(name.length() + 1, fileName.length() - ".snapshot".length());
+        try {
+            return Long.parseLong(middle);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // PENDING MARKERS (whole-collection saves made while offline)
+    // ══════════════════════════════════════════════════════════════════════
+
+    public void setPending(String name, boolean pending) {
+        Path marker = directory.resolve(name + ".pending");
+        try {
+            if (pending) {
+                Files.createDirectories(directory);
+                if (!Files.exists(marker)) {
+                    Files.createFile(marker);
+                }
+            } else {
+                Files.deleteIfExists(marker);
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Could not update pending marker for " + name + ": " + e.getMessage());
+        }
+    }
+
+    public boolean isPending(String name) {
+        return Files.exists(directory.resolve(name + ".pending"));
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // TASK OUTBOX
+    // ══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Durably appends one task mutation to the outbox.
+     */
+    public synchronized void appendOutbox(OutboxEntry entry) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            writer.writeStartDocument();
+            writer.writeString("op", entry.op);
+            writer.writeString("task_id", entry.taskId);
+            writer.writeInt64("expected_version", entry.expectedVersion);
+            if (entry.task != null) {
+                writer.writeName("task");
+                taskCodec().encode(writer, entry.task, EncoderContext.builder().build());
+            }
+            writer.writeEndDocument();
+        }
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(directory.resolve(OUTBOX_FILE),
+                    StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                drain(buffer, channel);
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Could not queue offline change: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads every queued mutation in the order it was made.
+     * A torn record at the end (crash mid-append) is ignored.
+     */
+    public synchronized List<OutboxEntry> readOutbox() {
+        ArrayList<OutboxEntry> entries = new ArrayList<>();
+        Path file = directory.resolve(OUTBOX_FILE);
+        if (!Files.exists(file)) {
+            return entries;
+        }
+        DecoderContext context = DecoderContext.builder().build();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer doc;
+            while ((doc = readDocument(channel)) != null) {
+                try (BsonBinaryReader reader = new BsonBinaryReader(doc)) {
+                    entries.add(readEntry(reader, context));
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Warning: Could not read offline changes: " + e.getMessage());
+        }
+        return entries;
+    }
+
+    public synchronized boolean hasOutbox() {
+        Path file = directory.resolve(OUTBOX_FILE);
+        try {
+            return Files.exists(file) && Files.size(file) > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public synchronized void clearOutbox() {
+        try {
+            Files.deleteIfExists(directory.resolve(OUTBOX_FILE));
+        } catch (IOException e) {
+            System.err.println("Warning: Could not clear offline changes: " + e.getMessage());
+        }
+    }
+
+    private OutboxEntry readEntry(BsonReader reader, DecoderContext context) {
+        String op = null;
+        String taskId = null;
+        long expectedVersion = 0L;
+        Task task = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "op":
+                    op = CodecSupport.readString(reader);
+                    break;
+                case "task_id":
+                    taskId = CodecSupport.readString(reader);
+                    break;
+                case "expected_version":
+                    expectedVersion = CodecSupport.readLong(reader);
+                    break;
+                case "task":
+                    task = taskCodec().decode(reader, context);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new OutboxEntry(op, taskId, expectedVersion, task);
+    }
+
+    private Codec<Task> taskCodec() {
+        return DatabaseManager.getCodecRegistry().get(Task.class);
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // FILE HELPERS
+    // ══════════════════════════════════════════════════════════════════════
+
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+
+    private static void drain(BasicOutputBuffer buffer, FileChannel channel) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.getInternalBuffer(), 0, buffer.getPosition());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        buffer.truncateToPosition(0);
+    }
+
+    /**
+     * Reads the next length-prefixed BSON document, or null at end of file
+     * (including a truncated trailing document).
+     */
+    private static ByteBuffer readDocument(FileChannel channel) throws IOException {
+        ByteBuffer lengthBytes = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        if (!readFully(channel, lengthBytes)) {
+            return null;
+        }
+        int length = lengthBytes.getInt(0);
+        if (length < 5) {
+            return null;
+        }
+        ByteBuffer doc = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        doc.putInt(length);
+        if (!readFully(channel, doc)) {
+            return null;
+        }
+        doc.flip();
+        return doc;
+    }
+
+    /**
+     * Slices the next length-prefixed BSON document out of a mapped buffer and
+     * advances past it, or returns null at the end (or at a truncated document).
+     */
+    private static ByteBuffer nextDocument(ByteBuffer buffer) {
+        if (buffer.remaining() < 4) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt(start);
+        if (length < 5 || length > buffer.remaining()) {
+            return null;
+        }
+        ByteBuffer doc = buffer.duplicate();
+        doc.limit(start + length);
+        buffer.position(start + length);
+        return doc.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer target) throws IOException {
+        while (target.hasRemaining()) {
+            if (channel.read(target) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
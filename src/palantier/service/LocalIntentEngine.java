@@ -0,0 +1,368 @@
+package palantier.service;
+
+import palantier.model.Task;
+import palantier.model.User;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * LocalIntentEngine — Answers everyday task questions without the LLM.
+ *
+ * The prompt is parsed into a small query made of the filters it mentions,
+ * which can be combined ("my overdue high priority tasks"):
+ *
+ * - whose tasks: mine, a named assignee, or unassigned
+ * - overdue, or due today / tomorrow / this week / this month
+ * - priority (High, Medium, Low) and status (To Do, In Progress, Done)
+ * - "what should I do first" recommends the most urgent open tasks
+ * - "how many" answers with a count instead of a list
+ *
+ * The answer is built straight from the in-memory tasks in TaskManager.
+ * When the prompt asks for something generative (write, explain, why, ...)
+ * or mentions none of the filters, answer() returns null and the question
+ * goes to the remote model instead. Follow-ups that point back at an
+ * earlier answer ("which of those are high priority?") are also left to the
+ * model, which sees the conversation; see refersToEarlierTurn().
+ */
+public class LocalIntentEngine {
+
+    public static final int MAX_LISTED = 15;
+    private static final int FIRST_RECOMMENDATIONS = 3;
+
+    private static final Pattern MINE = Pattern.compile(
+            "\\b(my|mine)\\b|\\b(do|should|am|have) i\\b|\\b(assigned to|for) me\\b");
+    private static final Pattern OVERDUE = Pattern.compile("\\b(overdue|late|past due|missed)\\b");
+    private static final Pattern DUE_TODAY = Pattern.compile("\\btoday\\b");
+    private static final Pattern DUE_TOMORROW = Pattern.compile("\\btomorrow\\b");
+    private static final Pattern DUE_WEEK = Pattern.compile("\\b(this week|next 7 days|next week|due soon|upcoming)\\b");
+    private static final Pattern DUE_MONTH = Pattern.compile("\\b(this month|next 30 days)\\b");
+    private static final Pattern PRIORITY = Pattern.compile("\\b(high|medium|low|urgent)\\b");
+    private static final Pattern IN_PROGRESS = Pattern.compile("\\b(in progress|doing|started|ongoing)\\b");
+    private static final Pattern TO_DO = Pattern.compile("\\b(to do|todo|not started)\\b");
+    private static final Pattern DONE = Pattern.compile("\\b(done|completed|finished|closed)\\b");
+    private static final Pattern UNASSIGNED = Pattern.compile("\\b(unassigned|not assigned|nobody|no one)\\b");
+    private static final Pattern FIRST = Pattern.compile(
+            "\\b(first|do next|start with|work on|focus on|prioriti[sz]e|most important)\\b");
+    private static final Pattern COUNT = Pattern.compile("\\b(how many|count|number of)\\b");
+    private static final Pattern GENERATIVE = Pattern.compile(
+            "\\b(write|draft|summari[sz]e|explain|why|describe|compose|translate|rewrite|suggest|plan|email)\\b");
+    private static final Pattern REFERS_BACK = Pattern.compile(
+            "\\b(those|these|them|they|that|it|which of|the same|ones)\\b");
+
+    // Assignee names by lowercased full and first name, valid for indexedVersion
+    private Map<String, String[]> assigneesByName;
+    private long indexedVersion = -1;
+
+    /**
+     * Returns the answer to the prompt, or null if no local intent matches.
+     */
+    public String answer(String prompt, User currentUser, TaskManager taskManager) {
+        String text = normalize(prompt);
+        if (GENERATIVE.matcher(text).find()) {
+            return null;
+        }
+        long stateVersion = taskManager.getStateVersion();
+        ArrayList<Task> tasks = taskManager.getAllTasks();
+        Query query = parse(text, currentUser, tasks, stateVersion);
+        if (query == null) {
+            return null;
+        }
+        return query.first ? recommend(query, tasks) : list(query, tasks);
+    }
+
+    /**
+     * Returns true if the prompt points back at an earlier answer ("which of
+     * those", "them"). Only meaningful for follow-up questions; the caller
+     * then skips answer(), since this engine does not see the conversation.
+     */
+    public boolean refersToEarlierTurn(String prompt) {
+        return REFERS_BACK.matcher(normalize(prompt)).find();
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // PARSING
+    // ══════════════════════════════════════════════════════════════════════
+
+    private static String normalize(String prompt) {
+        return " " + prompt.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}']+", " ") + " ";
+    }
+
+    /**
+     * What the prompt asked for; null fields are not filtered on.
+     */
+    private static final class Query {
+        String assigneeEmail;       // "" means unassigned
+        String assigneeLabel;       // "you", a name, or null
+        String priority;
+        String status;
+        boolean overdue;
+        int dueWithinDays = -1;     // -1 for no due date filter
+        boolean first;
+        boolean count;
+    }
+
+    private Query parse(String text, User currentUser, ArrayList<Task> tasks, long stateVersion) {
+        Query query = new Query();
+        boolean matched = false;
+
+        if (UNASSIGNED.matcher(text).find()) {
+            query.assigneeEmail = "";
+            matched = true;
+        } else if (MINE.matcher(text).find()) {
+            query.assigneeEmail = currentUser.getEmail();
+            query.assigneeLabel = "you";
+        } else {
+            String[] assignee = findAssignee(text, tasks, stateVersion);
+            if (assignee != null) {
+                query.assigneeEmail = assignee[0];
+                query.assigneeLabel = assignee[1];
+                matched = true;
+            }
+        }
+        // "my" or "I" alone does not make it a question about tasks ("do I need a break")
+        boolean mentionsTasks = text.contains(" task") || text.contains(" work") || text.contains(" todo");
+        if ("you".equals(query.assigneeLabel) && mentionsTasks) {
+            matched = true;
+        }
+
+        if (OVERDUE.matcher(text).find()) {
+            query.overdue = true;
+            matched = true;
+        } else if (DUE_TODAY.matcher(text).find()) {
+            query.dueWithinDays = 0;
+            matched = true;
+        } else if (DUE_TOMORROW.matcher(text).find()) {
+            query.dueWithinDays = 1;
+            matched = true;
+        } else if (DUE_WEEK.matcher(text).find()) {
+            query.dueWithinDays = 7;
+            matched = true;
+        } else if (DUE_MONTH.matcher(text).find()) {
+            query.dueWithinDays = 30;
+            matched = true;
+        }
+
+        Matcher priority = PRIORITY.matcher(text);
+        if (priority.find() && (mentionsTasks || text.contains(" priority"))) {
+            String word = priority.group(1);
+            query.priority = "low".equals(word) ? Task.PRIORITY_LOW
+                    : "medium".equals(word) ? Task.PRIORITY_MEDIUM : Task.PRIORITY_HIGH;
+            matched = true;
+        }
+
+        if (IN_PROGRESS.matcher(text).find()) {
+            query.status = Task.STATUS_IN_PROGRESS;
+            matched = true;
+        } else if (TO_DO.matcher(text).find()) {
+            query.status = Task.STATUS_TODO;
+            matched = true;
+        } else if (DONE.matcher(text).find() && mentionsTasks) {
+            query.status = Task.STATUS_DONE;
+            matched = true;
+        }
+
+        query.count = COUNT.matcher(text).find();
+        if (FIRST.matcher(text).find() && query.status == null && !query.count) {
+            query.first = true;
+            matched = true;
+        }
+
+        return matched ? query : null;
+    }
+
+    /**
+     * Finds an assignee mentioned by full or first name.
+     *
+     * @return {email, display name}, or null
+     */
+    private String[] findAssignee(String text, ArrayList<Task> tasks, long stateVersion) {
+        Map<String, String[]> byName = assigneeIndex(tasks, stateVersion);
+        String[] best = null;
+        int bestLength = 0;
+        for (Map.Entry<String, String[]> entry : byName.entrySet()) {
+            String name = entry.getKey();
+            if (name.length() > bestLength && (text.contains(" " + name + " ") || text.contains(" " + name + "'s "))) {
+                best = entry.getValue();
+                bestLength = name.length();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Lowercased full and first names of everyone with tasks, rebuilt only
+     * when the TaskManager state version has moved on.
+     */
+    private synchronized Map<String, String[]> assigneeIndex(ArrayList<Task> tasks, long stateVersion) {
+        if (assigneesByName != null && indexedVersion == stateVersion) {
+            return assigneesByName;
+        }
+        Map<String, String[]> byName = new HashMap<>();
+        for (Task task : tasks) {
+            if (!task.isAssigned() || task.getAssigneeName() == null) {
+                continue;
+            }
+            String full = task.getAssigneeName().toLowerCase(Locale.ROOT).trim();
+            String[] assignee = {task.getAssigneeEmail(), task.getAssigneeName()};
+            byName.putIfAbsent(full, assignee);
+            int space = full.indexOf(' ');
+            if (space > 0) {
+                byName.putIfAbsent(full.substring(0, space), assignee);
+            }
+        }
+        assigneesByName = byName;
+        indexedVersion = stateVersion;
+        return byName;
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // ANSWERS
+    // ══════════════════════════════════════════════════════════════════════
+
+    private String list(Query query, ArrayList<Task> tasks) {
+        Matches matches = filter(query, tasks, query.count ? 0 : MAX_LISTED);
+        String subject = describe(query, matches.total);
+        if (matches.total == 0) {
+            return "There are no " + subject + ".";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(matches.total == 1 ? "There is 1 " : "There are " + matches.total + " ").append(subject);
+        if (query.count) {
+            return sb.append('.').toString();
+        }
+        sb.append(":\n");
+        appendLines(sb, matches);
+        return sb.toString().trim();
+    }
+
+    private String recommend(Query query, ArrayList<Task> tasks) {
+        Matches candidates = filter(query, tasks, FIRST_RECOMMENDATIONS);
+        if (candidates.total == 0 && "you".equals(query.assigneeLabel)) {
+            // Nothing assigned to the user: recommend from the open tasks nobody has picked up
+            query.assigneeEmail = "";
+            query.assigneeLabel = null;
+            candidates = filter(query, tasks, FIRST_RECOMMENDATIONS);
+        }
+        if (candidates.total == 0) {
+            return "There are no open tasks to work on right now.";
+        }
+        StringBuilder sb = new StringBuilder("I'd start with these, most urgent first (overdue, then priority, "
+                + "then due date):\n");
+        appendLines(sb, candidates);
+        return sb.toString().trim();
+    }
+
+    /**
+     * Matching tasks: how many there are, and the most urgent few in order.
+     */
+    private static final class Matches {
+        int total;
+        ArrayList<Task> top = new ArrayList<>();
+    }
+
+    /**
+     * Counts the tasks matching the query in one pass, keeping only the
+     * {@code keep} most urgent (a bounded heap, so nothing else is sorted).
+     */
+    private Matches filter(Query query, ArrayList<Task> tasks, int keep) {
+        // Due date window: from the start of today to the end of the last day
+        Date dueFrom = null;
+        Date dueLimit = null;
+        if (query.dueWithinDays >= 0) {
+            Calendar cal = Calendar.getInstance();
+            cal.set(Calendar.HOUR_OF_DAY, 0);
+            cal.set(Calendar.MINUTE, 0);
+            cal.set(Calendar.SECOND, 0);
+            cal.set(Calendar.MILLISECOND, 0);
+            dueFrom = cal.getTime();
+            cal.add(Calendar.DAY_OF_YEAR, query.dueWithinDays + 1);
+            dueLimit = cal.getTime();
+        }
+        Matches matches = new Matches();
+        // Max-heap on urgency order, so the least urgent kept task is at the head
+        PriorityQueue<Task> top = new PriorityQueue<>(ChatTools.MOST_URGENT_FIRST.reversed());
+        for (Task task : tasks) {
+            boolean done = Task.STATUS_DONE.equals(task.getStatus());
+            if (query.status != null ? !query.status.equals(task.getStatus()) : done) {
+                continue;   // without a status filter only open tasks count
+            }
+            if (query.assigneeEmail != null && (query.assigneeEmail.isEmpty()
+                    ? task.isAssigned() : !query.assigneeEmail.equalsIgnoreCase(task.getAssigneeEmail()))) {
+                continue;
+            }
+            if (query.priority != null && !query.priority.equals(task.getPriority())) {
+                continue;
+            }
+            if (query.overdue && !task.isOverdue()) {
+                continue;
+            }
+            if (dueLimit != null && (task.getDueDate() == null || task.getDueDate().before(dueFrom)
+                    || !task.getDueDate().before(dueLimit))) {
+                continue;
+            }
+            matches.total++;
+            if (top.size() < keep) {
+                top.add(task);
+            } else if (keep > 0 && ChatTools.MOST_URGENT_FIRST.compare(task, top.peek()) < 0) {
+                top.poll();
+                top.add(task);
+            }
+        }
+        matches.top.addAll(top);
+        matches.top.sort(ChatTools.MOST_URGENT_FIRST);
+        return matches;
+    }
+
+    /**
+     * E.g. "overdue high priority tasks assigned to you".
+     */
+    private static String describe(Query query, int count) {
+        StringBuilder sb = new StringBuilder();
+        if (query.overdue) {
+            sb.append("overdue ");
+        } else if (query.status == null) {
+            sb.append("open ");
+        } else {
+            sb.append(query.status.toLowerCase(Locale.ROOT)).append(' ');
+        }
+        if (query.priority != null) {
+            sb.append(query.priority.toLowerCase(Locale.ROOT)).append(" priority ");
+        }
+        sb.append(count == 1 ? "task" : "tasks");
+        if (query.assigneeEmail != null) {
+            sb.append(query.assigneeEmail.isEmpty() ? " that nobody is assigned to"
+                    : " assigned to " + query.assigneeLabel);
+        }
+        if (query.dueWithinDays == 0) {
+            sb.append(" due today");
+        } else if (query.dueWithinDays == 1) {
+            sb.append(" due by tomorrow");
+        } else if (query.dueWithinDays > 1) {
+            sb.append(" due in the next ").append(query.dueWithinDays).append(" days");
+        }
+        return sb.toString();
+    }
+
+    private static void appendLines(StringBuilder sb, Matches matches) {
+        for (Task task : matches.top) {
+            sb.append("- ").append(task.getTitle())
+                    .append(" (").append(task.getPriority())
+                    .append(", due ").append(task.getFormattedDueDate());
+            if (task.isOverdue()) {
+                sb.append(", overdue");
+            }
+            sb.append(", ").append(task.isAssigned() ? task.getAssigneeName() : "unassigned").append(")\n");
+        }
+        if (matches.top.size() < matches.total) {
+            sb.append("...and ").append(matches.total - matches.top.size()).append(" more.\n");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package palantier.service;
+
+import palantier.model.Notification;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.Date;
+
+/**
+ * NotificationCodec — Encodes a Notification straight to / from BSON.
+ */
+class NotificationCodec implements Codec<Notification> {
+
+    @Override
+    public void encode(BsonWriter writer, Notification notification, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        CodecSupport.writeString(writer, "id", notification.getId());
+        CodecSupport.writeString(writer, "message", notification.getMessage());
+        CodecSupport.writeEpochMs(writer, "created_at_epoch_ms", notification.getCreatedAt());
+        writer.writeBoolean("is_read", notification.isRead());
+        CodecSupport.writeString(writer, "event_key", notification.getEventKey());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Notification decode(BsonReader reader, DecoderContext decoderContext) {
+        String id = null;
+        String message = null;
+        Date createdAt = null;
+        boolean read = false;
+        String eventKey = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "id":
+                    id = CodecSupport.readString(reader);
+                    break;
+                case "message":
+                    message = CodecSupport.readString(reader);
+                    break;
+                case "created_at_epoch_ms":
+                    createdAt = CodecSupport.readEpochMs(reader);
+                    break;
+                case "is_read":
+                    read = CodecSupport.readBoolean(reader);
+                    break;
+                case "event_key":
+                    eventKey = CodecSupport.readString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new Notification(id, message, createdAt != null ? createdAt : new Date(0L), read, eventKey);
+    }
+
+    @Override
+    public Class<Notification> getEncoderClass() {
+        return Notification.class;
+    }
+}
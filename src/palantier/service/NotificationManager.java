@@ -6,21 +6,47 @@ import com.mongodb.client.MongoCollection;
 import org.bson.Document;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Map;
 
 /**
  * Stores and manages user notifications.
+ *
+ * A local snapshot mirrors the collection; while MongoDB is unreachable it
+ * serves reads and absorbs saves, which are written back on reconnect.
+ * When a snapshot exists the manager starts from it without touching the
+ * database; reconcile() then brings it up to date in the background.
  */
 public class NotificationManager {
 
+    private static final String CACHE_NAME = "notifications";
+
     private ArrayList<Notification> notifications;
+    private final LocalCache localCache = new LocalCache();
+    // Kept so close() can unregister the same instance
+    private final Runnable reconnectListener = this::flushPending;
 
     public NotificationManager() {
         DatabaseManager.initializeDatabase();
-        notifications = loadNotifications();
+        if (localCache.hasSnapshot(CACHE_NAME)) {
+            notifications = new ArrayList<>(localCache.readSnapshot(CACHE_NAME, Notification.class).items);
+        } else {
+            notifications = loadNotifications();
+            if (localCache.isPending(CACHE_NAME)) {
+                saveNotifications();
+            }
+        }
+        DatabaseManager.addReconnectListener(reconnectListener);
     }
 
-    public void addNotification(String message, String eventKey) {
+    /**
+     * Unregisters from reconnect events; call when the session that owns this manager ends.
+     */
+    public void close() {
+        DatabaseManager.removeReconnectListener(reconnectListener);
+    }
+
+    public synchronized void addNotification(String message, String eventKey) {
         if (message == null || message.trim().isEmpty()) {
             return;
         }
@@ -31,13 +57,39 @@ public class NotificationManager {
         saveNotifications();
     }
 
-    public ArrayList<Notification> getAllNotificationsNewestFirst() {
+    /**
+     * Adds a batch of notifications (event key -> message) with a single save.
+     * Entries whose event key already exists are skipped, as in addNotification.
+     */
+    public synchronized void addNotifications(Map<String, String> messagesByEventKey) {
+        if (messagesByEventKey == null || messagesByEventKey.isEmpty()) {
+            return;
+        }
+        boolean added = false;
+        for (Map.Entry<String, String> entry : messagesByEventKey.entrySet()) {
+            String message = entry.getValue();
+            String eventKey = entry.getKey();
+            if (message == null || message.trim().isEmpty()) {
+                continue;
+            }
+            if (eventKey != null && hasEventKey(eventKey)) {
+                continue;
+            }
+            notifications.add(new Notification(message.trim(), eventKey));
+            added = true;
+        }
+        if (added) {
+            saveNotifications();
+        }
+    }
+
+    public synchronized ArrayList<Notification> getAllNotificationsNewestFirst() {
         ArrayList<Notification> copy = new ArrayList<>(notifications);
         copy.sort(Comparator.comparing(Notification::getCreatedAt).reversed());
         return copy;
     }
 
-    public int getUnreadCount() {
+    public synchronized int getUnreadCount() {
         int count = 0;
         for (Notification notification : notifications) {
             if (!notification.isRead()) {
@@ -47,14 +99,14 @@ public class NotificationManager {
         return count;
     }
 
-    public void markAllAsRead() {
+    public synchronized void markAllAsRead() {
         for (Notification notification : notifications) {
             notification.markRead();
         }
         saveNotifications();
     }
 
-    public void markAsRead(String notificationId) {
+    public synchronized void markAsRead(String notificationId) {
         if (notificationId == null) {
             return;
         }
@@ -76,45 +128,91 @@ public class NotificationManager {
         return false;
     }
 
+    /**
+     * Brings the in-memory list up to date with the database. If local saves
+     * are still pending, remote notifications we do not have are merged in
+     * and the result written back; otherwise the stored list replaces ours.
+     *
+     * @return false if the database could not be reached
+     */
+    public synchronized boolean reconcile() {
+        ArrayList<Notification> remote = fetchNotifications();
+        if (remote == null) {
+            return false;
+        }
+        if (localCache.isPending(CACHE_NAME)) {
+            HashSet<String> known = new HashSet<>();
+            for (Notification notification : notifications) {
+                known.add(notification.getId());
+            }
+            for (Notification notification : remote) {
+                if (known.add(notification.getId())) {
+                    notifications.add(notification);
+                }
+            }
+            saveNotifications();
+        } else {
+            notifications = remote;
+            localCache.writeSnapshot(CACHE_NAME, notifications, Notification.class, System.currentTimeMillis());
+        }
+        return true;
+    }
+
+    private synchronized void flushPending() {
+        if (localCache.isPending(CACHE_NAME)) {
+            saveNotifications();
+        }
+    }
+
     private void saveNotifications() {
+        localCache.writeSnapshot(CACHE_NAME, notifications, Notification.class, System.currentTimeMillis());
+        if (!DatabaseManager.isOnline()) {
+            localCache.setPending(CACHE_NAME, true);
+            return;
+        }
         try {
-            MongoCollection<Document> collection = DatabaseManager.getDatabase().getCollection("notifications");
+            MongoCollection<Notification> collection =
+                    DatabaseManager.getCollection("notifications", Notification.class);
             collection.deleteMany(new Document());
-            
-            if (notifications.isEmpty()) {
-                return;
-            }
-            
-            List<Document> docs = new ArrayList<>();
-            for (Notification n : notifications) {
-                Document doc = new Document("id", n.getId())
-                        .append("message", n.getMessage())
-                        .append("created_at_epoch_ms", n.getCreatedAt().getTime())
-                        .append("is_read", n.isRead())
-                        .append("event_key", n.getEventKey());
-                docs.add(doc);
+
+            if (!notifications.isEmpty()) {
+                collection.insertMany(notifications);
             }
-            collection.insertMany(docs);
+            localCache.setPending(CACHE_NAME, false);
         } catch (Exception e) {
             System.err.println("Warning: Could not save notifications: " + e.getMessage());
+            DatabaseManager.markOffline();
+            localCache.setPending(CACHE_NAME, true);
         }
     }
 
+    /**
+     * Loads from the database, or from the local snapshot when offline or when
+     * the snapshot holds saves that have not reached the database yet.
+     */
     private ArrayList<Notification> loadNotifications() {
+        if (DatabaseManager.isOnline() && !localCache.isPending(CACHE_NAME)) {
+            ArrayList<Notification> loaded = fetchNotifications();
+            if (loaded != null) {
+                localCache.writeSnapshot(CACHE_NAME, loaded, Notification.class, System.currentTimeMillis());
+                return loaded;
+            }
+        }
+        return new ArrayList<>(localCache.readSnapshot(CACHE_NAME, Notification.class).items);
+    }
+
+    /**
+     * Reads the whole collection, or returns null if the database is unreachable.
+     */
+    private ArrayList<Notification> fetchNotifications() {
         ArrayList<Notification> loaded = new ArrayList<>();
         try {
-            MongoCollection<Document> collection = DatabaseManager.getDatabase().getCollection("notifications");
-            for (Document doc : collection.find()) {
-                loaded.add(new Notification(
-                        doc.getString("id"),
-                        doc.getString("message"),
-                        new java.util.Date(doc.getLong("created_at_epoch_ms")),
-                        doc.getBoolean("is_read"),
-                        doc.getString("event_key")));
-            }
+            DatabaseManager.getCollection("notifications", Notification.class).find().into(loaded);
+            return loaded;
         } catch (Exception e) {
             System.err.println("Warning: Could not load notifications: " + e.getMessage());
+            DatabaseManager.markOffline();
+            return null;
         }
-        return loaded;
     }
 }
@@ -0,0 +1,169 @@
+package palantier.service;
+
+import palantier.model.Comment;
+import palantier.model.Task;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+
+/**
+ * TaskCodec — Encodes a Task (including its embedded comments) straight to /
+ * from BSON, without building intermediate Document maps.
+ */
+class TaskCodec implements Codec<Task> {
+
+    private final CommentCodec commentCodec;
+
+    TaskCodec(CommentCodec commentCodec) {
+        this.commentCodec = commentCodec;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Task task, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        CodecSupport.writeString(writer, "id", task.getId());
+        CodecSupport.writeString(writer, "title", task.getTitle());
+        CodecSupport.writeString(writer, "description", task.getDescription());
+        CodecSupport.writeString(writer, "status", task.getStatus());
+        CodecSupport.writeString(writer, "priority", task.getPriority());
+        CodecSupport.writeString(writer, "assignee_email", task.getAssigneeEmail());
+        CodecSupport.writeString(writer, "assignee_name", task.getAssigneeName());
+        CodecSupport.writeString(writer, "created_by_email", task.getCreatedByEmail());
+        CodecSupport.writeString(writer, "created_by_name", task.getCreatedByName());
+        CodecSupport.writeEpochMs(writer, "created_date_epoch_ms", task.getCreatedDate());
+        CodecSupport.writeEpochMs(writer, "due_date_epoch_ms", task.getDueDate());
+        CodecSupport.writeEpochMs(writer, "completed_date_epoch_ms", task.getCompletedDate());
+        writer.writeInt64("version", task.getVersion());
+        CodecSupport.writeEpochMs(writer, "updated_at_epoch_ms", task.getUpdatedAt());
+        CodecSupport.writeString(writer, "revision", task.getRevision());
+
+        writer.writeStartArray("comments");
+        for (Comment comment : task.getComments()) {
+            encoderContext.encodeWithChildContext(commentCodec, writer, comment);
+        }
+        writer.writeEndArray();
+
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Task decode(BsonReader reader, DecoderContext decoderContext) {
+        String id = null;
+        String title = null;
+        String description = null;
+        String status = null;
+        String priority = null;
+        String assigneeEmail = null;
+        String assigneeName = null;
+        String createdByEmail = null;
+        String createdByName = null;
+        Date createdDate = null;
+        Date dueDate = null;
+        Date completedDate = null;
+        long version = 0L;
+        Date updatedAt = null;
+        String revision = null;
+        ArrayList<Comment> comments = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "id":
+                    id = CodecSupport.readString(reader);
+                    break;
+                case "title":
+                    title = CodecSupport.readString(reader);
+                    break;
+                case "description":
+                    description = CodecSupport.readString(reader);
+                    break;
+                case "status":
+                    status = CodecSupport.readString(reader);
+                    break;
+                case "priority":
+                    priority = CodecSupport.readString(reader);
+                    break;
+                case "assignee_email":
+                    assigneeEmail = CodecSupport.readString(reader);
+                    break;
+                case "assignee_name":
+                    assigneeName = CodecSupport.readString(reader);
+                    break;
+                case "created_by_email":
+                    createdByEmail = CodecSupport.readString(reader);
+                    break;
+                case "created_by_name":
+                    createdByName = CodecSupport.readString(reader);
+                    break;
+                case "created_date_epoch_ms":
+                    createdDate = CodecSupport.readEpochMs(reader);
+                    break;
+                case "due_date_epoch_ms":
+                    dueDate = CodecSupport.readEpochMs(reader);
+                    break;
+                case "completed_date_epoch_ms":
+                    completedDate = CodecSupport.readEpochMs(reader);
+                    break;
+                case "version":
+                    version = CodecSupport.readLong(reader);
+                    break;
+                case "updated_at_epoch_ms":
+                    updatedAt = CodecSupport.readEpochMs(reader);
+                    break;
+                case "revision":
+                    revision = CodecSupport.readString(reader);
+                    break;
+                case "comments":
+                    comments = decodeComments(reader, decoderContext);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        Task task = new Task(id, title, description,
+                status != null ? status : Task.STATUS_TODO,
+                priority != null ? priority : Task.PRIORITY_MEDIUM,
+                createdByEmail, createdByName,
+                createdDate != null ? createdDate : new Date(0L));
+        task.setAssignee(assigneeEmail, assigneeName);
+        task.setDueDate(dueDate);
+        task.setCompletedDate(completedDate);
+        task.setVersion(version);
+        task.setUpdatedAt(updatedAt);
+        task.setRevision(revision);
+        if (comments != null) {
+            for (Comment comment : comments) {
+                task.addComment(comment);
+            }
+        }
+        return task;
+    }
+
+    private ArrayList<Comment> decodeComments(BsonReader reader, DecoderContext decoderContext) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        ArrayList<Comment> comments = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            comments.add(decoderContext.decodeWithChildContext(commentCodec, reader));
+        }
+        reader.readEndArray();
+        return comments;
+    }
+
+    @Override
+    public Class<Task> getEncoderClass() {
+        return Task.class;
+    }
+}
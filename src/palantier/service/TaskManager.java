@@ -3,15 +3,24 @@ package palantier.service;
 import palantier.model.Comment;
 import palantier.model.Task;
 
-import com.mongodb.client.MongoCollection;
-import org.bson.Document;
-
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * TaskManager — Handles all task-related business logic:
@@ -19,14 +28,59 @@ import java.util.List;
  * - Task assignment
  * - Comment management
  * - Filtering by status, priority, and assignee
- * - Persistence via SQLite database
+ * - Persistence via SQLite database (delegated to TaskStore)
+ * - Background delta sync of other clients' changes
+ * - Offline mode: a local snapshot serves reads and a durable outbox
+ *   queues writes while MongoDB is unreachable
+ * - Warm start: when the last session left a snapshot, the board is shown
+ *   from it at once and reconciled against MongoDB on the sync thread
+ *
+ * Public methods are synchronized: the sync loop merges remote changes
+ * from a background thread while the UI reads on the EDT. Writes are
+ * per task and version-checked (optimistic concurrency), so several
+ * clients can save at once without overwriting each other.
  */
 public class TaskManager {
 
-    // In-memory list of all tasks
-    private ArrayList<Task> tasks;
+    // Done tasks older than this many days are moved to the archive on startup
+    public static final int DEFAULT_ARCHIVE_AFTER_DAYS = 30;
+    private static final int ARCHIVE_SEARCH_LIMIT = 200;
+
+    // Delta sync re-reads this far behind the watermark, for writes stamped before it but committed after
+    private static final long SYNC_OVERLAP_MS = 5000L;
+    public static final long DEFAULT_SYNC_INTERVAL_MS = 5000L;
+
+    // Conflicting writes are re-read, merged and retried up to this many times
+    private static final int MAX_WRITE_ATTEMPTS = 5;
+
+    // Queued offline changes are written back this many tasks per round trip
+    private static final int REPLAY_BATCH_SIZE = 500;
+    private static final String SNAPSHOT_NAME = "tasks";
+
+    // In-memory tasks keyed by id (insertion order = display order). Stored tasks are
+    // never changed in place: writes change a copy and swap it in, so readers may use
+    // a task outside the lock
+    private LinkedHashMap<String, Task> tasks;
     private UserManager userManager;
     private NotificationManager notificationManager;
+    private TaskStore taskStore;
+    private LocalCache localCache;
+
+    // Delta sync state
+    private long syncWatermark;
+    // Set on a warm start until the snapshot has been reconciled with the database
+    private volatile boolean reconcilePending;
+    private ScheduledExecutorService syncExecutor;
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+    // Kept so close() can unregister the same instance
+    private final Runnable reconnectListener = this::replayOutbox;
+
+    // Source of every state version, shared by all instances so two TaskManagers never
+    // report the same value (chat caches are shared across them and key on it)
+    private static final AtomicLong STATE_SEQUENCE = new AtomicLong();
+
+    // Changed on every change to the in-memory task set; a cheap "has anything changed" fingerprint
+    private final AtomicLong stateVersion = new AtomicLong(STATE_SEQUENCE.incrementAndGet());
 
     /**
      * Creates a new TaskManager and loads existing tasks from the data file.
@@ -35,7 +89,38 @@ public class TaskManager {
         DatabaseManager.initializeDatabase();
         this.userManager = userManager;
         this.notificationManager = notificationManager;
-        tasks = loadTasks();
+        this.taskStore = new TaskStore();
+        this.localCache = new LocalCache();
+        // Server time once loaded; until then (cold offline start) the first pull reads everything
+        syncWatermark = 0L;
+
+        LocalCache.Snapshot<Task> snapshot = localCache.readSnapshot(SNAPSHOT_NAME, Task.class);
+        if (snapshot.watermark > 0) {
+            // Warm start: no database round trip before the dashboard can render
+            loadFromLocalCache(snapshot);
+            reconcilePending = true;
+            DatabaseManager.addReconnectListener(reconnectListener);
+            return;
+        }
+
+        if (DatabaseManager.checkConnection() && replayOutbox()) {
+            try {
+                syncWatermark = taskStore.serverTime();
+                tasks = taskStore.loadAll();
+            } catch (Exception e) {
+                System.err.println("Warning: Could not load tasks from database: " + e.getMessage());
+                DatabaseManager.markOffline();
+                tasks = null;
+                syncWatermark = 0L;
+            }
+        }
+        if (tasks == null) {
+            loadFromLocalCache(snapshot);
+        } else {
+            archiveCompletedTasks(DEFAULT_ARCHIVE_AFTER_DAYS);
+            saveLocalSnapshot();
+        }
+        DatabaseManager.addReconnectListener(reconnectListener);
     }
 
     // ══════════════════════════════════════════════════════════════════════
@@ -54,7 +139,7 @@ public class TaskManager {
      * @param createdByName  display name of the current user
      * @return null on success, or an error message string on failure
      */
-    public String createTask(String title, String description, String priority, Date dueDate,
+    public synchronized String createTask(String title, String description, String priority, Date dueDate,
                              String assigneeEmail, String assigneeName,
                              String createdByEmail, String createdByName) {
 
@@ -91,8 +176,12 @@ public class TaskManager {
             notifyTaskAssigned(task, assigneeName);
         }
 
-        tasks.add(task);
-        saveTasks();
+        task.markModified();
+        tasks.put(task.getId(), task);
+        bumpStateVersion();
+        if (!DatabaseManager.isOnline() || !taskStore.insert(task)) {
+            queueOffline(LocalCache.OP_INSERT, task, 0L);
+        }
 
         return null; // success
     }
@@ -102,12 +191,24 @@ public class TaskManager {
     // ══════════════════════════════════════════════════════════════════════
 
     /**
-     * Updates a task in the list and persists the change.
-     * The caller modifies the Task object directly and then calls this
-     * to trigger a save.
+     * Changes the status of a single task.
+     *
+     * @return null on success, or an error message on failure
      */
-    public void updateTask() {
-        saveTasks();
+    public String updateStatus(String taskId, String status) {
+        if (!isValidStatus(status)) {
+            return "Invalid status.";
+        }
+        return mutateTask(taskId, task -> task.setStatus(status));
+    }
+
+    /**
+     * Changes (or clears, when null) the due date of a single task.
+     *
+     * @return null on success, or an error message on failure
+     */
+    public String updateDueDate(String taskId, Date dueDate) {
+        return mutateTask(taskId, task -> task.setDueDate(dueDate));
     }
 
     // ══════════════════════════════════════════════════════════════════════
@@ -120,15 +221,13 @@ public class TaskManager {
      * @param taskId the UUID of the task to delete
      * @return true if the task was found and deleted, false otherwise
      */
-    public boolean deleteTask(String taskId) {
-        for (int i = 0; i < tasks.size(); i++) {
-            if (tasks.get(i).getId().equals(taskId)) {
-                tasks.remove(i);
-                saveTasks();
-                return true;
-            }
+    public synchronized boolean deleteTask(String taskId) {
+        if (taskId == null || tasks.remove(taskId) == null) {
+            return false;
         }
-        return false;
+        bumpStateVersion();
+        deleteFromStore(Collections.singletonList(taskId));
+        return true;
     }
 
     // ══════════════════════════════════════════════════════════════════════
@@ -156,12 +255,203 @@ public class TaskManager {
         }
 
         String oldAssignee = task.getAssigneeEmail();
-        task.setAssignee(assigneeEmail, assigneeName);
-        saveTasks();
+        String error = mutateTask(taskId, t -> t.setAssignee(assigneeEmail, assigneeName));
+        if (error != null) {
+            return error;
+        }
         if (assigneeEmail != null && !assigneeEmail.trim().isEmpty()
                 && (oldAssignee == null || !oldAssignee.equalsIgnoreCase(assigneeEmail))) {
-            notifyTaskAssigned(task, assigneeName);
+            notifyTaskAssigned(findTaskById(taskId), assigneeName);
+        }
+        return null;
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // BULK OPERATIONS
+    // ══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Sets the status of every task in the given id set.
+     * Validates once, persists with a single bulkWrite and emits one notification.
+     *
+     * @param taskIds ids of the tasks to update (unknown ids are ignored)
+     * @param status  one of Task.ALL_STATUSES
+     * @return null on success, or an error message on failure
+     */
+    public String bulkUpdateStatus(Collection<String> taskIds, String status) {
+        if (!isValidStatus(status)) {
+            return "Invalid status.";
+        }
+        ArrayList<Task> targets = resolveTasks(taskIds);
+        if (targets.isEmpty()) {
+            return "No matching tasks selected.";
+        }
+
+        ArrayList<Task> changed = new ArrayList<>();
+        for (Task task : targets) {
+            if (!status.equals(task.getStatus())) {
+                changed.add(task);
+            }
+        }
+        String error = bulkMutate(changed, task -> task.setStatus(status));
+        notifyBulk("status", changed.size(), "-> " + status);
+        return error;
+    }
+
+    /**
+     * Sets the priority of every task in the given id set.
+     *
+     * @param taskIds  ids of the tasks to update (unknown ids are ignored)
+     * @param priority one of Task.ALL_PRIORITIES
+     * @return null on success, or an error message on failure
+     */
+    public String bulkUpdatePriority(Collection<String> taskIds, String priority) {
+        if (!isValidPriority(priority)) {
+            return "Invalid priority. Choose Low, Medium, or High.";
+        }
+        ArrayList<Task> targets = resolveTasks(taskIds);
+        if (targets.isEmpty()) {
+            return "No matching tasks selected.";
+        }
+
+        ArrayList<Task> changed = new ArrayList<>();
+        for (Task task : targets) {
+            if (!priority.equals(task.getPriority())) {
+                changed.add(task);
+            }
+        }
+        String error = bulkMutate(changed, task -> task.setPriority(priority));
+        notifyBulk("priority", changed.size(), "-> " + priority + " priority");
+        return error;
+    }
+
+    /**
+     * Assigns every task in the given id set to one team member (or unassigns them).
+     * Assignment notifications for the whole batch are saved in one write.
+     *
+     * @param taskIds       ids of the tasks to update (unknown ids are ignored)
+     * @param assigneeEmail email of the new assignee (null to unassign)
+     * @param assigneeName  display name of the new assignee
+     * @return null on success, or an error message on failure
+     */
+    public String bulkAssign(Collection<String> taskIds, String assigneeEmail, String assigneeName) {
+        boolean assigning = assigneeEmail != null && !assigneeEmail.trim().isEmpty();
+        if (assigning && (userManager == null || !userManager.isValidUserEmail(assigneeEmail))) {
+            return "Invalid assignee. Please select a valid team member.";
+        }
+        ArrayList<Task> targets = resolveTasks(taskIds);
+        if (targets.isEmpty()) {
+            return "No matching tasks selected.";
+        }
+
+        ArrayList<Task> changed = new ArrayList<>();
+        for (Task task : targets) {
+            String oldAssignee = task.getAssigneeEmail();
+            boolean unchanged = assigning
+                    ? assigneeEmail.equalsIgnoreCase(oldAssignee)
+                    : !task.isAssigned();
+            if (!unchanged) {
+                changed.add(task);
+            }
+        }
+        String email = assigning ? assigneeEmail : null;
+        String name = assigning ? assigneeName : null;
+        String error = bulkMutate(changed, task -> task.setAssignee(email, name));
+
+        LinkedHashMap<String, String> notifications = new LinkedHashMap<>();
+        if (assigning) {
+            for (Task task : changed) {
+                Task current = findTaskById(task.getId());
+                if (current != null) {
+                    notifications.put(assignedEventKey(current), assignedMessage(current, assigneeName));
+                }
+            }
+        }
+        if (notificationManager != null && !notifications.isEmpty()) {
+            notificationManager.addNotifications(notifications);
+        }
+        return error;
+    }
+
+    /**
+     * Deletes every task in the given id set with a single database delete.
+     *
+     * @param taskIds ids of the tasks to delete (unknown ids are ignored)
+     * @return null on success, or an error message on failure
+     */
+    public synchronized String bulkDelete(Collection<String> taskIds) {
+        ArrayList<Task> targets = resolveTasks(taskIds);
+        if (targets.isEmpty()) {
+            return "No matching tasks selected.";
+        }
+
+        List<String> deleted = new ArrayList<>();
+        for (Task task : targets) {
+            tasks.remove(task.getId());
+            deleted.add(task.getId());
         }
+        bumpStateVersion();
+        deleteFromStore(deleted);
+        notifyBulk("delete", deleted.size(), "deleted");
+        return null;
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // ARCHIVE
+    // ══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Moves tasks that have been Done for more than the given number of days
+     * out of the in-memory set and into the archive collection.
+     * Done tasks without a completion date fall back to their creation date.
+     *
+     * @return the number of tasks archived
+     */
+    public synchronized int archiveCompletedTasks(int olderThanDays) {
+        long cutoff = System.currentTimeMillis() - olderThanDays * 24L * 60L * 60L * 1000L;
+        ArrayList<Task> expired = new ArrayList<>();
+        for (Task task : tasks.values()) {
+            if (!Task.STATUS_DONE.equals(task.getStatus())) {
+                continue;
+            }
+            Date completed = task.getCompletedDate() != null ? task.getCompletedDate() : task.getCreatedDate();
+            if (completed != null && completed.getTime() < cutoff) {
+                expired.add(task);
+            }
+        }
+        // The archive lives only on the server, so nothing is archived while offline
+        if (expired.isEmpty() || !DatabaseManager.isOnline() || !taskStore.archive(expired)) {
+            return 0;
+        }
+        for (Task task : expired) {
+            tasks.remove(task.getId());
+        }
+        bumpStateVersion();
+        return expired.size();
+    }
+
+    /**
+     * Searches archived tasks by title, description or assignee.
+     */
+    public ArrayList<Task> searchArchivedTasks(String query) {
+        return taskStore.searchArchive(query, ARCHIVE_SEARCH_LIMIT);
+    }
+
+    /**
+     * Brings an archived task back into the active task set.
+     *
+     * @return null on success, or an error message on failure
+     */
+    public synchronized String restoreArchivedTask(String taskId) {
+        if (!DatabaseManager.isOnline()) {
+            return "The archive is not available while offline.";
+        }
+        Task restored = taskStore.restoreFromArchive(taskId);
+        if (restored == null) {
+            return "Archived task not found.";
+        }
+        tasks.put(restored.getId(), restored);
+        bumpStateVersion();
         return null;
     }
 
@@ -190,9 +480,7 @@ public class TaskManager {
         }
 
         Comment comment = new Comment(authorName, authorEmail, text.trim());
-        task.addComment(comment);
-        saveTasks();
-        return null;
+        return mutateTask(taskId, t -> t.addComment(comment));
     }
 
     // ══════════════════════════════════════════════════════════════════════
@@ -202,8 +490,8 @@ public class TaskManager {
     /**
      * Returns all tasks.
      */
-    public ArrayList<Task> getAllTasks() {
-        return new ArrayList<>(tasks);
+    public synchronized ArrayList<Task> getAllTasks() {
+        return new ArrayList<>(tasks.values());
     }
 
     /**
@@ -215,10 +503,10 @@ public class TaskManager {
      * @param assignee filter by assignee email
      * @return filtered list of tasks
      */
-    public ArrayList<Task> getFilteredTasks(String status, String priority, String assignee) {
+    public synchronized ArrayList<Task> getFilteredTasks(String status, String priority, String assignee) {
         ArrayList<Task> filtered = new ArrayList<>();
 
-        for (Task task : tasks) {
+        for (Task task : tasks.values()) {
             // Status filter
             if (status != null && !status.equals("All")) {
                 if (!task.getStatus().equals(status)) {
@@ -254,17 +542,50 @@ public class TaskManager {
     }
 
     /**
-     * Returns comments sorted oldest-to-newest for deterministic chronology.
+     * Returns comments oldest-to-newest. Tasks keep their comments in that
+     * order, so this is a plain copy.
      */
-    public ArrayList<Comment> getCommentsChronological(String taskId) {
+    public synchronized ArrayList<Comment> getCommentsChronological(String taskId) {
         Task task = findTaskById(taskId);
-        ArrayList<Comment> sorted = new ArrayList<>();
         if (task == null) {
-            return sorted;
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(task.getComments());
+    }
+
+    /**
+     * Returns up to {@code limit} comments ending just before index {@code end}
+     * (in oldest-to-newest order). Pass Integer.MAX_VALUE as end for the
+     * newest page, then the previous page's start to walk back in time.
+     */
+    public synchronized CommentPage getCommentsPage(String taskId, int end, int limit) {
+        Task task = findTaskById(taskId);
+        if (task == null) {
+            return new CommentPage(new ArrayList<>(), 0, 0);
+        }
+        ArrayList<Comment> comments = task.getComments();
+        int to = Math.min(end, comments.size());
+        int from = Math.max(0, to - limit);
+        return new CommentPage(new ArrayList<>(comments.subList(from, to)), from, comments.size());
+    }
+
+    /**
+     * A slice of a task's comment thread, oldest first.
+     */
+    public static final class CommentPage {
+        public final ArrayList<Comment> comments;
+        public final int start;     // index of the first comment in the full thread
+        public final int total;     // comments in the full thread
+
+        CommentPage(ArrayList<Comment> comments, int start, int total) {
+            this.comments = comments;
+            this.start = start;
+            this.total = total;
+        }
+
+        public boolean hasOlder() {
+            return start > 0;
         }
-        sorted.addAll(task.getComments());
-        sorted.sort(Comparator.comparing(Comment::getTimestamp));
-        return sorted;
     }
 
     // ══════════════════════════════════════════════════════════════════════
@@ -274,16 +595,16 @@ public class TaskManager {
     /**
      * Returns the total number of tasks.
      */
-    public int getTotalCount() {
+    public synchronized int getTotalCount() {
         return tasks.size();
     }
 
     /**
      * Returns the number of tasks with a given status.
      */
-    public int getCountByStatus(String status) {
+    public synchronized int getCountByStatus(String status) {
         int count = 0;
-        for (Task task : tasks) {
+        for (Task task : tasks.values()) {
             if (task.getStatus().equals(status)) {
                 count++;
             }
@@ -291,9 +612,9 @@ public class TaskManager {
         return count;
     }
 
-    public int getAssignedToCount(String userEmail) {
+    public synchronized int getAssignedToCount(String userEmail) {
         int count = 0;
-        for (Task task : tasks) {
+        for (Task task : tasks.values()) {
             if (task.getAssigneeEmail() != null && task.getAssigneeEmail().equalsIgnoreCase(userEmail)) {
                 count++;
             }
@@ -301,9 +622,9 @@ public class TaskManager {
         return count;
     }
 
-    public int getOverdueCount() {
+    public synchronized int getOverdueCount() {
         int count = 0;
-        for (Task task : tasks) {
+        for (Task task : tasks.values()) {
             if (task.isOverdue()) {
                 count++;
             }
@@ -311,9 +632,9 @@ public class TaskManager {
         return count;
     }
 
-    public int getPendingCount() {
+    public synchronized int getPendingCount() {
         int count = 0;
-        for (Task task : tasks) {
+        for (Task task : tasks.values()) {
             if (!Task.STATUS_DONE.equals(task.getStatus())) {
                 count++;
             }
@@ -321,9 +642,9 @@ public class TaskManager {
         return count;
     }
 
-    public int getUnassignedCount() {
+    public synchronized int getUnassignedCount() {
         int count = 0;
-        for (Task task : tasks) {
+        for (Task task : tasks.values()) {
             if (!task.isAssigned()) {
                 count++;
             }
@@ -344,13 +665,13 @@ public class TaskManager {
         }
     }
 
-    public void generateDueSoonNotifications() {
+    public synchronized void generateDueSoonNotifications() {
         if (notificationManager == null) {
             return;
         }
         Date now = new Date();
         long oneDayMs = 24L * 60L * 60L * 1000L;
-        for (Task task : tasks) {
+        for (Task task : tasks.values()) {
             Date dueDate = task.getDueDate();
             if (dueDate == null || Task.STATUS_DONE.equals(task.getStatus())) {
                 continue;
@@ -373,13 +694,11 @@ public class TaskManager {
     /**
      * Finds a task by its UUID.
      */
-    public Task findTaskById(String id) {
-        for (Task task : tasks) {
-            if (task.getId().equals(id)) {
-                return task;
-            }
+    public synchronized Task findTaskById(String id) {
+        if (id == null) {
+            return null;
         }
-        return null;
+        return tasks.get(id);
     }
 
     /**
@@ -394,14 +713,60 @@ public class TaskManager {
         return false;
     }
 
+    /**
+     * Checks if the given status string is valid.
+     */
+    private boolean isValidStatus(String status) {
+        for (String s : Task.ALL_STATUSES) {
+            if (s.equals(status)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resolves a set of ids to the matching in-memory tasks, skipping unknown ids.
+     */
+    private synchronized ArrayList<Task> resolveTasks(Collection<String> taskIds) {
+        ArrayList<Task> resolved = new ArrayList<>();
+        if (taskIds == null) {
+            return resolved;
+        }
+        for (String id : new LinkedHashSet<>(taskIds)) {
+            Task task = tasks.get(id);
+            if (task != null) {
+                resolved.add(task);
+            }
+        }
+        return resolved;
+    }
+
     private void notifyTaskAssigned(Task task, String assigneeName) {
         if (notificationManager == null) {
             return;
         }
+        notificationManager.addNotification(assignedMessage(task, assigneeName), assignedEventKey(task));
+    }
+
+    private String assignedMessage(Task task, String assigneeName) {
         String displayAssignee = (assigneeName == null || assigneeName.trim().isEmpty()) ? "a team member" : assigneeName;
-        String message = "Assigned: " + truncate(task.getTitle(), 24) + " -> " + truncate(displayAssignee, 18);
-        String eventKey = "assigned-" + task.getId() + "-" + (task.getAssigneeEmail() == null ? "none" : task.getAssigneeEmail());
-        notificationManager.addNotification(message, eventKey);
+        return "Assigned: " + truncate(task.getTitle(), 24) + " -> " + truncate(displayAssignee, 18);
+    }
+
+    private String assignedEventKey(Task task) {
+        return "assigned-" + task.getId() + "-" + (task.getAssigneeEmail() == null ? "none" : task.getAssigneeEmail());
+    }
+
+    /**
+     * Emits a single summary notification for a bulk operation.
+     */
+    private void notifyBulk(String operation, int count, String detail) {
+        if (notificationManager == null || count == 0) {
+            return;
+        }
+        String message = "Bulk: " + count + " task" + (count != 1 ? "s" : "") + " " + detail;
+        notificationManager.addNotification(message, "bulk-" + operation + "-" + UUID.randomUUID());
     }
 
     private String truncate(String value, int max) {
@@ -419,109 +784,570 @@ public class TaskManager {
     // ══════════════════════════════════════════════════════════════════════
 
     /**
-     * Saves the current list of tasks to the data file.
+     * Applies a change to one task and writes it with optimistic concurrency.
+     * The write only succeeds if nobody else has saved the task since we read
+     * it; on conflict the latest stored copy is fetched, the same change is
+     * re-applied on top of it, and the write is retried.
+     *
+     * The change is made to a copy and the database is written without
+     * holding this manager's lock, so readers never wait on a slow or
+     * unreachable server; the copy is swapped in afterwards.
+     *
+     * @return null on success, or an error message on failure
      */
-    private void saveTasks() {
-        try {
-            MongoCollection<Document> collection = DatabaseManager.getDatabase().getCollection("tasks");
-            collection.deleteMany(new Document());
-
-            if (tasks.isEmpty()) {
-                return;
-            }
-
-            List<Document> docs = new ArrayList<>();
-            for (Task task : tasks) {
-                Document doc = new Document("id", task.getId())
-                        .append("title", task.getTitle())
-                        .append("description", task.getDescription())
-                        .append("status", task.getStatus())
-                        .append("priority", task.getPriority())
-                        .append("assignee_email", task.getAssigneeEmail())
-                        .append("assignee_name", task.getAssigneeName())
-                        .append("created_by_email", task.getCreatedByEmail())
-                        .append("created_by_name", task.getCreatedByName())
-                        .append("created_date_epoch_ms", task.getCreatedDate().getTime());
-
-                if (task.getDueDate() != null) {
-                    doc.append("due_date_epoch_ms", task.getDueDate().getTime());
-                } else {
-                    doc.append("due_date_epoch_ms", null);
+    private String mutateTask(String taskId, Consumer<Task> change) {
+        Task task = findTaskById(taskId);
+        if (task == null) {
+            return "Task not found.";
+        }
+        return applyWithRetry(task, change);
+    }
+
+    private String applyWithRetry(Task base, Consumer<Task> change) {
+        String taskId = base.getId();
+        for (int attempt = 1; ; attempt++) {
+            long expectedVersion = base.getVersion();
+            Task working = base.copy();
+            change.accept(working);
+            working.markModified();
+
+            TaskStore.WriteResult result = DatabaseManager.isOnline()
+                    ? taskStore.saveIfVersion(working, expectedVersion)
+                    : TaskStore.WriteResult.FAILED;
+            if (result == TaskStore.WriteResult.SAVED) {
+                adoptIfNewer(working);
+                return null;
+            }
+
+            if (result == TaskStore.WriteResult.FAILED) {
+                synchronized (this) {
+                    Task current = tasks.get(taskId);
+                    if (current == null) {
+                        return "Task not found.";
+                    }
+                    // Queue only on top of the copy we started from, so no local edit is overwritten
+                    if (current.getVersion() == expectedVersion) {
+                        queueOffline(LocalCache.OP_SAVE, working, expectedVersion);
+                        tasks.put(taskId, working);
+                        bumpStateVersion();
+                        return null;
+                    }
+                    base = current;
+                }
+                if (attempt >= MAX_WRITE_ATTEMPTS) {
+                    return "This task is being edited by someone else. Please try again.";
+                }
+            } else {
+                Task latest;
+                try {
+                    latest = taskStore.fetch(taskId);
+                } catch (Exception e) {
+                    // The change is not saved yet; the next pass queues it for replay
+                    System.err.println("Warning: Could not re-read task after a write conflict: " + e.getMessage());
+                    DatabaseManager.markOffline();
+                    continue;
                 }
+                if (latest == null) {
+                    removeDeletedRemotely(taskId);
+                    return "This task was deleted by another user.";
+                }
+                if (attempt >= MAX_WRITE_ATTEMPTS) {
+                    adoptIfNewer(latest);
+                    return "This task is being edited by someone else. Please try again.";
+                }
+                base = latest;
+            }
+        }
+    }
 
-                List<Document> commentDocs = new ArrayList<>();
-                for (Comment comment : task.getComments()) {
-                    Document cDoc = new Document("id", comment.getId())
-                            .append("author_name", comment.getAuthorName())
-                            .append("author_email", comment.getAuthorEmail())
-                            .append("text", comment.getText())
-                            .append("timestamp_epoch_ms", comment.getTimestamp().getTime());
-                    commentDocs.add(cDoc);
+    /**
+     * Applies the same change to many tasks and writes them in one
+     * version-checked bulkWrite; only the tasks that lost a race are
+     * re-read and retried individually. Like mutateTask, the changes are
+     * made to copies and written outside this manager's lock.
+     *
+     * @return null if every task was saved (or queued offline), or an error
+     *         message saying how many were not
+     */
+    private String bulkMutate(List<Task> targets, Consumer<Task> change) {
+        if (targets.isEmpty()) {
+            return null;
+        }
+        HashMap<String, Long> expectedVersions = new HashMap<>();
+        ArrayList<Task> working = new ArrayList<>(targets.size());
+        for (Task task : targets) {
+            expectedVersions.put(task.getId(), task.getVersion());
+            Task copy = task.copy();
+            change.accept(copy);
+            copy.markModified();
+            working.add(copy);
+        }
+        Set<String> conflicts = DatabaseManager.isOnline()
+                ? taskStore.bulkSaveIfVersion(working, expectedVersions)
+                : null;
+
+        // Tasks changed here while the write was in flight are re-applied one by one
+        ArrayList<Task> retry = new ArrayList<>();
+        synchronized (this) {
+            boolean changed = false;
+            for (Task copy : working) {
+                String taskId = copy.getId();
+                Task current = tasks.get(taskId);
+                if (conflicts == null) {
+                    if (current == null) {
+                        continue;
+                    }
+                    if (current.getVersion() != expectedVersions.get(taskId)) {
+                        retry.add(current);
+                        continue;
+                    }
+                    queueOffline(LocalCache.OP_SAVE, copy, expectedVersions.get(taskId));
+                    tasks.put(taskId, copy);
+                    changed = true;
+                } else if (!conflicts.contains(taskId) && current != null
+                        && current.getVersion() <= copy.getVersion()) {
+                    tasks.put(taskId, copy);
+                    changed = true;
                 }
-                doc.append("comments", commentDocs);
+            }
+            if (changed) {
+                bumpStateVersion();
+            }
+        }
 
-                docs.add(doc);
+        int failed = 0;
+        String lastError = null;
+        for (String taskId : conflicts != null ? conflicts : Collections.<String>emptySet()) {
+            Task latest;
+            try {
+                latest = taskStore.fetch(taskId);
+            } catch (Exception e) {
+                // Re-applied to the local copy below and queued for replay
+                System.err.println("Warning: Could not re-read task after a write conflict: " + e.getMessage());
+                DatabaseManager.markOffline();
+                latest = findTaskById(taskId);
+                if (latest == null) {
+                    continue;
+                }
+            }
+            String error;
+            if (latest == null) {
+                removeDeletedRemotely(taskId);
+                error = "This task was deleted by another user.";
+            } else {
+                error = applyWithRetry(latest, change);
+            }
+            if (error != null) {
+                failed++;
+                lastError = error;
             }
-            collection.insertMany(docs);
-        } catch (Exception e) {
-            System.err.println("Warning: Could not save tasks to database: " + e.getMessage());
         }
+        for (Task base : retry) {
+            String error = applyWithRetry(base, change);
+            if (error != null) {
+                failed++;
+                lastError = error;
+            }
+        }
+        if (failed == 0) {
+            return null;
+        }
+        return failed + " of " + targets.size() + " tasks could not be updated. " + lastError;
     }
 
     /**
-     * Loads tasks from the data file.
-     * Returns an empty list if the file doesn't exist or is corrupted.
+     * Swaps in a saved (or freshly fetched) copy unless the task was deleted
+     * here or a newer version has already arrived through sync.
      */
-    private ArrayList<Task> loadTasks() {
-        ArrayList<Task> loaded = new ArrayList<>();
+    private synchronized void adoptIfNewer(Task task) {
+        Task current = tasks.get(task.getId());
+        if (current != null && current.getVersion() <= task.getVersion()) {
+            tasks.put(task.getId(), task);
+            bumpStateVersion();
+        }
+    }
+
+    private synchronized void removeDeletedRemotely(String taskId) {
+        if (tasks.remove(taskId) != null) {
+            bumpStateVersion();
+        }
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // DELTA SYNC
+    // ══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Registers a callback run (on the sync thread) after remote changes are merged.
+     */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(Runnable listener) {
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * Starts the background loop that pulls other clients' changes.
+     * After a warm start the first pass runs immediately and reconciles the snapshot.
+     */
+    public synchronized void startSync(long intervalMs) {
+        if (syncExecutor != null) {
+            return;
+        }
+        syncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "palantier-task-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long initialDelay = reconcilePending ? 0L : intervalMs;
+        syncExecutor.scheduleWithFixedDelay(this::syncNow, initialDelay, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopSync() {
+        if (syncExecutor != null) {
+            syncExecutor.shutdownNow();
+            syncExecutor = null;
+        }
+    }
+
+    /**
+     * Stops syncing and unregisters from reconnect events, so a manager left
+     * behind by a logout no longer replays the shared outbox.
+     */
+    public void close() {
+        stopSync();
+        DatabaseManager.removeReconnectListener(reconnectListener);
+    }
+
+    /**
+     * Fetches only the tasks and tombstones changed since the last watermark
+     * and merges them into the in-memory set. Remote copies replace local ones
+     * only when their version is newer, so re-reading the skew window is harmless.
+     *
+     * @return the number of in-memory changes applied
+     */
+    public int syncNow() {
+        if (reconcilePending) {
+            return reconcileWarmStart();
+        }
+        if (!DatabaseManager.isOnline() && !DatabaseManager.checkConnection()) {
+            return 0;
+        }
+        int applied = pullChanges();
+        if (applied > 0) {
+            fireChangeListeners();
+        }
+        return applied;
+    }
+
+    /**
+     * Reconciles a warm-started session with the database: replays changes
+     * queued in the last offline session, refreshes users and notifications,
+     * pulls task changes since the snapshot watermark (tombstones cover tasks
+     * deleted or archived meanwhile) and runs the startup archive pass.
+     * Stays pending, and is retried on the next sync pass, while unreachable.
+     *
+     * @return the number of in-memory task changes applied
+     */
+    private int reconcileWarmStart() {
+        if (!DatabaseManager.checkConnection() || !replayOutbox()) {
+            return 0;
+        }
+        if (userManager != null) {
+            userManager.reconcile();
+        }
+        if (notificationManager != null) {
+            notificationManager.reconcile();
+        }
+        int applied = pullChanges();
+        applied += archiveCompletedTasks(DEFAULT_ARCHIVE_AFTER_DAYS);
+        if (DatabaseManager.isOnline()) {
+            reconcilePending = false;
+        }
+        // Users and notifications may have changed too, so always notify
+        fireChangeListeners();
+        return applied;
+    }
+
+    private void fireChangeListeners() {
+        for (Runnable listener : changeListeners) {
+            listener.run();
+        }
+    }
+
+    private int pullChanges() {
+        long since;
+        synchronized (this) {
+            since = syncWatermark - SYNC_OVERLAP_MS;
+        }
+
+        ArrayList<Task> changed;
+        ArrayList<TaskStore.Tombstone> deleted;
         try {
-            MongoCollection<Document> collection = DatabaseManager.getDatabase().getCollection("tasks");
-            for (Document doc : collection.find()) {
-                Task task = new Task(
-                        doc.getString("title"),
-                        doc.getString("description"),
-                        doc.getString("priority"),
-                        doc.getString("created_by_email"),
-                        doc.getString("created_by_name"));
-                task.setId(doc.getString("id"));
-                task.setStatus(doc.getString("status"));
-                task.setAssignee(
-                        doc.getString("assignee_email"),
-                        doc.getString("assignee_name"));
-                task.setCreatedDate(new Date(doc.getLong("created_date_epoch_ms")));
-                Long dueEpoch = doc.getLong("due_date_epoch_ms");
-                if (dueEpoch != null) {
-                    task.setDueDate(new Date(dueEpoch));
+            deleted = taskStore.fetchTombstonesSince(since);
+            changed = taskStore.fetchChangedSince(since);
+        } catch (Exception e) {
+            System.err.println("Warning: Could not sync tasks: " + e.getMessage());
+            DatabaseManager.markOffline();
+            return 0;
+        }
+
+        int applied = 0;
+        synchronized (this) {
+            // Deletes first: a task that is stored now was re-created after any tombstone it has
+            for (TaskStore.Tombstone tombstone : deleted) {
+                // A local copy newer than the deleted version was re-created or edited since; keep it
+                Task local = tasks.get(tombstone.taskId);
+                if (local != null && (tombstone.deletedVersion == null
+                        || local.getVersion() <= tombstone.deletedVersion)) {
+                    tasks.remove(tombstone.taskId);
+                    applied++;
                 }
-                
-                List<Document> commentDocs = doc.getList("comments", Document.class);
-                if (commentDocs != null) {
-                    for (Document cDoc : commentDocs) {
-                        Comment comment = new Comment(
-                                cDoc.getString("author_name"),
-                                cDoc.getString("author_email"),
-                                cDoc.getString("text"));
-                        comment.setId(cDoc.getString("id"));
-                        comment.setTimestamp(new Date(cDoc.getLong("timestamp_epoch_ms")));
-                        task.addComment(comment);
-                    }
+                syncWatermark = Math.max(syncWatermark, tombstone.deletedAtEpochMs);
+            }
+            for (Task remote : changed) {
+                Task local = tasks.get(remote.getId());
+                if (local == null || remote.getVersion() > local.getVersion()) {
+                    tasks.put(remote.getId(), remote);
+                    applied++;
+                }
+                if (remote.getUpdatedAt() != null) {
+                    syncWatermark = Math.max(syncWatermark, remote.getUpdatedAt().getTime());
                 }
+            }
+            if (applied > 0) {
+                bumpStateVersion();
+            }
+        }
+
+        return applied;
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // OFFLINE MODE
+    // ══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Returns a counter that changes whenever any task is created, edited,
+     * deleted, archived, restored or merged from another client. Equal values
+     * mean the task set has not changed in between. Values are unique across
+     * all TaskManager instances, so they are safe to use in shared cache keys.
+     */
+    public long getStateVersion() {
+        return stateVersion.get();
+    }
+
+    /**
+     * Moves the state version to a value no TaskManager has reported before.
+     */
+    private void bumpStateVersion() {
+        stateVersion.set(STATE_SEQUENCE.incrementAndGet());
+    }
 
-                loaded.add(task);
+    /**
+     * Returns true while writes are being queued locally instead of saved.
+     */
+    public boolean isOffline() {
+        return !DatabaseManager.isOnline();
+    }
+
+    /**
+     * Writes the current in-memory tasks to the local snapshot.
+     * Called after a successful load and on shutdown, so the next offline
+     * start has an up-to-date board.
+     */
+    public void saveLocalSnapshot() {
+        ArrayList<Task> snapshot;
+        long watermark;
+        synchronized (this) {
+            snapshot = new ArrayList<>(tasks.values());
+            watermark = syncWatermark;
+        }
+        localCache.writeSnapshot(SNAPSHOT_NAME, snapshot, Task.class, watermark);
+    }
+
+    /**
+     * Rebuilds the in-memory set from the local snapshot plus every change
+     * still queued in the outbox. The snapshot watermark becomes the sync
+     * watermark, so reconnecting only pulls what changed since.
+     */
+    private void loadFromLocalCache(LocalCache.Snapshot<Task> snapshot) {
+        tasks = new LinkedHashMap<>();
+        for (Task task : snapshot.items) {
+            tasks.put(task.getId(), task);
+        }
+        for (LocalCache.OutboxEntry entry : localCache.readOutbox()) {
+            if (LocalCache.OP_DELETE.equals(entry.op)) {
+                tasks.remove(entry.taskId);
+            } else if (entry.task != null) {
+                tasks.put(entry.taskId, entry.task);
             }
-        } catch (Exception e) {
-            System.err.println("Warning: Could not load tasks from database: " + e.getMessage());
         }
+        if (snapshot.watermark > 0) {
+            syncWatermark = snapshot.watermark;
+        }
+        bumpStateVersion();
+    }
 
-        return loaded;
+    private void queueOffline(String op, Task task, long expectedVersion) {
+        DatabaseManager.markOffline();
+        localCache.appendOutbox(new LocalCache.OutboxEntry(op, task.getId(), expectedVersion, task));
     }
 
-    private Task findTaskByIdInList(ArrayList<Task> source, String id) {
-        for (Task task : source) {
-            if (task.getId().equals(id)) {
-                return task;
+    private void deleteFromStore(List<String> taskIds) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        if (!DatabaseManager.isOnline() || !taskStore.delete(taskIds)) {
+            DatabaseManager.markOffline();
+            for (String id : taskIds) {
+                localCache.appendOutbox(new LocalCache.OutboxEntry(LocalCache.OP_DELETE, id, 0L, null));
+            }
+        }
+    }
+
+    /**
+     * Writes every queued offline change back to the database.
+     *
+     * Entries are first collapsed per task (the latest state wins, keeping the
+     * version the task had before its first offline edit), then written in
+     * batches: deletes and inserts with one round trip each, saves with one
+     * version-checked bulkWrite. A save that conflicts with a remote edit made
+     * in the meantime is re-based on the stored version and written anyway —
+     * the user's queued edit wins. Writes are recognised by their revision id,
+     * so replay is idempotent: if the connection drops part-way the outbox is
+     * kept and replayed again later.
+     *
+     * @return true if the outbox is now empty
+     */
+    private synchronized boolean replayOutbox() {
+        List<LocalCache.OutboxEntry> entries = localCache.readOutbox();
+        if (entries.isEmpty()) {
+            return true;
+        }
+
+        LinkedHashMap<String, LocalCache.OutboxEntry> pending = new LinkedHashMap<>();
+        for (LocalCache.OutboxEntry entry : entries) {
+            LocalCache.OutboxEntry first = pending.get(entry.taskId);
+            if (first == null) {
+                pending.put(entry.taskId, entry);
+                continue;
+            }
+            String op = entry.op;
+            if (LocalCache.OP_SAVE.equals(op) && LocalCache.OP_INSERT.equals(first.op)) {
+                op = LocalCache.OP_INSERT;
+            }
+            pending.put(entry.taskId, new LocalCache.OutboxEntry(op, entry.taskId, first.expectedVersion, entry.task));
+        }
+
+        ArrayList<LocalCache.OutboxEntry> batch = new ArrayList<>(REPLAY_BATCH_SIZE);
+        for (LocalCache.OutboxEntry entry : pending.values()) {
+            batch.add(entry);
+            if (batch.size() >= REPLAY_BATCH_SIZE) {
+                if (!replayBatch(batch)) {
+                    return false;
+                }
+                batch.clear();
+            }
+        }
+        if (!replayBatch(batch)) {
+            return false;
+        }
+        localCache.clearOutbox();
+        return true;
+    }
+
+    private boolean replayBatch(List<LocalCache.OutboxEntry> batch) {
+        ArrayList<String> deletes = new ArrayList<>();
+        ArrayList<Task> inserts = new ArrayList<>();
+        ArrayList<Task> saves = new ArrayList<>();
+        HashMap<String, Long> expectedVersions = new HashMap<>();
+        for (LocalCache.OutboxEntry entry : batch) {
+            if (LocalCache.OP_DELETE.equals(entry.op)) {
+                deletes.add(entry.taskId);
+            } else if (LocalCache.OP_INSERT.equals(entry.op)) {
+                inserts.add(entry.task);
+            } else {
+                saves.add(entry.task);
+                expectedVersions.put(entry.taskId, entry.expectedVersion);
+            }
+        }
+        if (!taskStore.delete(deletes) || !taskStore.upsertAll(inserts)) {
+            DatabaseManager.markOffline();
+            return false;
+        }
+        Set<String> conflicts = taskStore.bulkSaveIfVersion(saves, expectedVersions);
+        if (conflicts == null) {
+            DatabaseManager.markOffline();
+            return false;
+        }
+        for (Task queued : saves) {
+            if (!conflicts.contains(queued.getId())) {
+                continue;
+            }
+            try {
+                Task stored = taskStore.fetch(queued.getId());
+                if (stored == null || (queued.getRevision() != null
+                        && queued.getRevision().equals(stored.getRevision()))) {
+                    // Deleted remotely, or already written by an earlier partial replay
+                    continue;
+                }
+                if (!rebaseQueuedSave(queued, stored)) {
+                    DatabaseManager.markOffline();
+                    return false;
+                }
+            } catch (Exception e) {
+                System.err.println("Warning: Could not replay offline change: " + e.getMessage());
+                DatabaseManager.markOffline();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes a queued save on top of the stored copy it conflicted with,
+     * re-reading and retrying while other clients keep changing the task.
+     * If it still conflicts after MAX_WRITE_ATTEMPTS the queued edit is
+     * dropped, the stored copy kept and the user notified.
+     *
+     * @return false if the database could not be reached
+     */
+    private boolean rebaseQueuedSave(Task queued, Task stored) {
+        for (int attempt = 1; ; attempt++) {
+            long storedVersion = stored.getVersion();
+            queued.setVersion(Math.max(storedVersion, queued.getVersion()));
+            queued.markModified();
+            TaskStore.WriteResult result = taskStore.saveIfVersion(queued, storedVersion);
+            if (result == TaskStore.WriteResult.FAILED) {
+                return false;
+            }
+            if (result == TaskStore.WriteResult.SAVED) {
+                if (tasks != null && tasks.containsKey(queued.getId())) {
+                    tasks.put(queued.getId(), queued);
+                    bumpStateVersion();
+                }
+                return true;
+            }
+            stored = taskStore.fetch(queued.getId());
+            if (stored == null) {
+                return true;    // deleted remotely; the next sync drops it locally
+            }
+            if (attempt >= MAX_WRITE_ATTEMPTS) {
+                System.err.println("Warning: Offline change to task " + queued.getId()
+                        + " was not saved: it kept changing on the server.");
+                if (tasks != null && tasks.containsKey(queued.getId())) {
+                    tasks.put(queued.getId(), stored);
+                    bumpStateVersion();
+                }
+                if (notificationManager != null) {
+                    notificationManager.addNotification("Offline edit not saved: " + truncate(stored.getTitle(), 24),
+                            "offline-conflict-" + queued.getId() + "-" + queued.getRevision());
+                }
+                return true;
             }
         }
-        return null;
     }
 }
@@ -0,0 +1,848 @@
+package palantier.service;
+
+import palantier.model.Task;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.conversions.Bson;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonReader;
+import org.bson.json.JsonWriter;
+import org.bson.json.JsonWriterSettings;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * TaskStore — MongoDB persistence for tasks.
+ *
+ * Owns the "tasks" collection: loading, per-task writes with delete
+ * tombstones, change queries for delta sync, bulk writes, the cold
+ * "tasks_archive" tier for long-completed tasks, and streaming import /
+ * export of whole boards as JSON Lines or CSV.
+ * Import and export stream through buffered NIO file channels and a database
+ * cursor, so memory use stays constant regardless of board size.
+ *
+ * updated_at and tombstone times are stamped with the server's clock ($$NOW
+ * in a pipeline update, MongoDB 4.2+), so the delta sync watermark does not
+ * depend on any client's clock being right. Tombstones also record the
+ * version that was deleted, so clients decide whether a delete wins by
+ * version rather than by time.
+ */
+public class TaskStore {
+
+    public static final String COLLECTION = "tasks";
+    public static final String ARCHIVE_COLLECTION = "tasks_archive";
+    public static final String TOMBSTONE_COLLECTION = "task_tombstones";
+    public static final int DEFAULT_IMPORT_BATCH_SIZE = 1000;
+
+    // The server's clock as epoch millis, for pipeline updates
+    private static final BsonDocument SERVER_NOW = new BsonDocument("$toLong", new BsonString("$$NOW"));
+
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+    private static final int EXPORT_CURSOR_BATCH = 1000;
+
+    private static final String[] CSV_COLUMNS = {
+            "id", "title", "description", "status", "priority",
+            "assignee_email", "assignee_name", "created_by_email", "created_by_name",
+            "created_date_epoch_ms", "due_date_epoch_ms", "completed_date_epoch_ms", "comment_count"
+    };
+
+    /**
+     * Outcome of a version-checked write.
+     */
+    public enum WriteResult {
+        SAVED,      // the stored version matched and the write was applied
+        CONFLICT,   // another client changed (or deleted) the task first
+        FAILED      // the database could not be reached
+    }
+
+    /**
+     * A deleted (or archived) task as seen by delta sync.
+     */
+    public static class Tombstone {
+        public final String taskId;
+        public final long deletedAtEpochMs;     // server time, for the sync watermark
+        public final Long deletedVersion;       // null for tombstones written before versions were recorded
+
+        Tombstone(String taskId, long deletedAtEpochMs, Long deletedVersion) {
+            this.taskId = taskId;
+            this.deletedAtEpochMs = deletedAtEpochMs;
+            this.deletedVersion = deletedVersion;
+        }
+    }
+
+    /**
+     * File formats supported by import and export.
+     */
+    public enum Format {
+        JSONL, CSV;
+
+        /**
+         * Picks the format from a file extension (.csv, otherwise JSON Lines).
+         */
+        public static Format fromPath(Path path) {
+            String name = path.getFileName().toString().toLowerCase();
+            return name.endsWith(".csv") ? CSV : JSONL;
+        }
+    }
+
+    private boolean indexesEnsured;
+    private boolean archiveIndexesEnsured;
+
+    private MongoCollection<Task> collection() {
+        MongoCollection<Task> collection = DatabaseManager.getCollection(COLLECTION, Task.class);
+        if (!indexesEnsured) {
+            // Per-task writes and upserts filter on "id"; without an index each is a collection scan
+            collection.createIndex(Indexes.ascending("id"), new IndexOptions().background(true));
+            // Delta sync queries by update time
+            collection.createIndex(Indexes.ascending("updated_at_epoch_ms"), new IndexOptions().background(true));
+            DatabaseManager.getDatabase().getCollection(TOMBSTONE_COLLECTION)
+                    .createIndex(Indexes.ascending("deleted_at_epoch_ms"), new IndexOptions().background(true));
+            indexesEnsured = true;
+        }
+        return collection;
+    }
+
+    private MongoCollection<Task> archiveCollection() {
+        MongoCollection<Task> collection = DatabaseManager.getCollection(ARCHIVE_COLLECTION, Task.class);
+        if (!archiveIndexesEnsured) {
+            collection.createIndex(Indexes.ascending("id"), new IndexOptions().background(true));
+            archiveIndexesEnsured = true;
+        }
+        return collection;
+    }
+
+    private Codec<Task> codec() {
+        return DatabaseManager.getCodecRegistry().get(Task.class);
+    }
+
+    /**
+     * Returns the database server's current time in epoch millis, the clock
+     * every sync watermark is measured against.
+     */
+    public long serverTime() {
+        Date localTime = DatabaseManager.getDatabase().runCommand(new Document("isMaster", 1)).getDate("localTime");
+        return localTime != null ? localTime.getTime() : System.currentTimeMillis();
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // LOAD / SAVE
+    // ══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Loads every task, keyed by id in stored order.
+     * Database errors propagate so the caller can fall back to the local cache.
+     */
+    public LinkedHashMap<String, Task> loadAll() {
+        LinkedHashMap<String, Task> loaded = new LinkedHashMap<>();
+        for (Task task : collection().find()) {
+            loaded.put(task.getId(), task);
+        }
+        return loaded;
+    }
+
+    /**
+     * Inserts a newly created task.
+     *
+     * @return false if the database could not be reached
+     */
+    public boolean insert(Task task) {
+        try {
+            collection().updateOne(Filters.eq("id", task.getId()), stampedWrite(task),
+                    new UpdateOptions().upsert(true));
+            return true;
+        } catch (Exception e) {
+            System.err.println("Warning: Could not save task to database: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes tasks by id (insert or replace) in one unordered bulkWrite.
+     * Used for replaying offline inserts, where a partial earlier replay
+     * may already have written some of them.
+     *
+     * @return false if the database could not be reached
+     */
+    public boolean upsertAll(Collection<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return true;
+        }
+        try {
+            List<WriteModel<Task>> writes = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                writes.add(new UpdateOneModel<>(Filters.eq("id", task.getId()), stampedWrite(task),
+                        new UpdateOptions().upsert(true)));
+            }
+            collection().bulkWrite(writes, new BulkWriteOptions().ordered(false));
+            return true;
+        } catch (Exception e) {
+            System.err.println("Warning: Could not save tasks to database: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Replaces a task only if the stored copy still has the expected version
+     * (optimistic concurrency). The task itself should already carry the new version.
+     */
+    public WriteResult saveIfVersion(Task task, long expectedVersion) {
+        try {
+            long matched = collection().updateOne(versionFilter(task.getId(), expectedVersion), stampedWrite(task))
+                    .getMatchedCount();
+            return matched == 1 ? WriteResult.SAVED : WriteResult.CONFLICT;
+        } catch (Exception e) {
+            System.err.println("Warning: Could not save task to database: " + e.getMessage());
+            return WriteResult.FAILED;
+        }
+    }
+
+    /**
+     * Version-checked variant of bulkWrite for many tasks in one round trip.
+     * The bulk result only counts matches, so when some writes did not match
+     * the stored copies are re-read: a write took effect only if the stored
+     * revision is the one it carried (another client editing the same version
+     * produces the same version number, but never the same revision).
+     *
+     * @param expectedVersions id -> version each task had before the change
+     * @return ids whose write lost a race with another client, or null if the database is unreachable
+     */
+    public Set<String> bulkSaveIfVersion(List<Task> tasks, Map<String, Long> expectedVersions) {
+        LinkedHashSet<String> conflicts = new LinkedHashSet<>();
+        if (tasks.isEmpty()) {
+            return conflicts;
+        }
+        try {
+            List<WriteModel<Task>> writes = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                writes.add(new UpdateOneModel<>(versionFilter(task.getId(), expectedVersions.get(task.getId())),
+                        stampedWrite(task)));
+            }
+            BulkWriteResult result = collection().bulkWrite(writes, new BulkWriteOptions().ordered(false));
+            if (result.getMatchedCount() == tasks.size()) {
+                return conflicts;
+            }
+            // Find the losers: their stored revision is not the one we just wrote
+            HashMap<String, String> stored = new HashMap<>();
+            List<String> ids = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                ids.add(task.getId());
+            }
+            for (Task task : collection().find(Filters.in("id", ids))) {
+                stored.put(task.getId(), task.getRevision());
+            }
+            for (Task task : tasks) {
+                String revision = stored.get(task.getId());
+                if (revision == null || !revision.equals(task.getRevision())) {
+                    conflicts.add(task.getId());
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Warning: Could not save tasks to database: " + e.getMessage());
+            return null;
+        }
+        return conflicts;
+    }
+
+    /**
+     * Reads the current stored copy of a task, or null if it no longer exists.
+     * Database errors propagate so callers can tell "deleted" from "unreachable".
+     */
+    public Task fetch(String taskId) {
+        return collection().find(Filters.eq("id", taskId)).first();
+    }
+
+    /**
+     * Builds a pipeline update that writes every field of the task as given
+     * ($literal, so text starting with "$" is not read as a field path) and
+     * stamps updated_at with the server's clock.
+     */
+    private List<Bson> stampedWrite(Task task) {
+        BsonDocument encoded = new BsonDocument();
+        codec().encode(new BsonDocumentWriter(encoded), task, EncoderContext.builder().build());
+        BsonDocument fields = new BsonDocument();
+        for (Map.Entry<String, BsonValue> field : encoded.entrySet()) {
+            fields.put(field.getKey(), new BsonDocument("$literal", field.getValue()));
+        }
+        fields.put("updated_at_epoch_ms", SERVER_NOW);
+        return Collections.singletonList(new BsonDocument("$set", fields));
+    }
+
+    /**
+     * Re-stamps updated_at with the server's clock after a plain write.
+     */
+    private static void stampServerTime(MongoCollection<Task> collection, List<String> taskIds) {
+        collection.updateMany(Filters.in("id", taskIds), Collections.singletonList(
+                new BsonDocument("$set", new BsonDocument("updated_at_epoch_ms", SERVER_NOW))));
+    }
+
+    private static Bson versionFilter(String taskId, Long expectedVersion) {
+        long version = expectedVersion != null ? expectedVersion : 0L;
+        if (version == 0L) {
+            // Documents written before versioning have no version field
+            return Filters.and(Filters.eq("id", taskId),
+                    Filters.or(Filters.eq("version", 0L), Filters.exists("version", false)));
+        }
+        return Filters.and(Filters.eq("id", taskId), Filters.eq("version", version));
+    }
+
+    /**
+     * Deletes tasks by id and records a tombstone for each, so other clients'
+     * delta sync can drop them from their in-memory sets.
+     *
+     * @return false if the database could not be reached
+     */
+    public boolean delete(Collection<String> taskIds) {
+        if (taskIds.isEmpty()) {
+            return true;
+        }
+        try {
+            HashMap<String, Long> versions = storedVersions(taskIds);
+            collection().deleteMany(Filters.in("id", new ArrayList<>(taskIds)));
+            writeTombstones(versions);
+            return true;
+        } catch (Exception e) {
+            System.err.println("Warning: Could not delete tasks from database: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Records a tombstone, with the version that was deleted, for each task
+     * that was still stored. Ids that were already gone were deleted by
+     * someone else, who wrote their own tombstone.
+     */
+    private void writeTombstones(Map<String, Long> deletedVersions) {
+        if (deletedVersions.isEmpty()) {
+            return;
+        }
+        List<WriteModel<Document>> writes = new ArrayList<>(deletedVersions.size());
+        for (Map.Entry<String, Long> deleted : deletedVersions.entrySet()) {
+            List<Bson> stampDeletion = Collections.singletonList(new BsonDocument("$set",
+                    new BsonDocument("deleted_at_epoch_ms", SERVER_NOW)
+                            .append("version", new BsonInt64(deleted.getValue()))));
+            writes.add(new UpdateOneModel<>(Filters.eq("id", deleted.getKey()), stampDeletion,
+                    new UpdateOptions().upsert(true)));
+        }
+        DatabaseManager.getDatabase().getCollection(TOMBSTONE_COLLECTION)
+                .bulkWrite(writes, new BulkWriteOptions().ordered(false));
+    }
+
+    /**
+     * Returns id -> stored version for those of the given tasks that exist
+     * in the hot collection (0 for documents written before versioning).
+     */
+    private HashMap<String, Long> storedVersions(Collection<String> taskIds) {
+        HashMap<String, Long> versions = new HashMap<>(taskIds.size() * 2);
+        for (Document stored : DatabaseManager.getDatabase().getCollection(COLLECTION)
+                .find(Filters.in("id", new ArrayList<>(taskIds)))
+                .projection(Projections.include("id", "version"))) {
+            Number version = stored.get("version", Number.class);
+            versions.put(stored.getString("id"), version != null ? version.longValue() : 0L);
+        }
+        return versions;
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // DELTA SYNC
+    // ══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Returns tasks whose updated_at is strictly after the given epoch millis.
+     */
+    public ArrayList<Task> fetchChangedSince(long sinceEpochMs) {
+        ArrayList<Task> changed = new ArrayList<>();
+        collection().find(Filters.gt("updated_at_epoch_ms", sinceEpochMs)).into(changed);
+        return changed;
+    }
+
+    /**
+     * Returns the tombstones written after the given epoch millis.
+     */
+    public ArrayList<Tombstone> fetchTombstonesSince(long sinceEpochMs) {
+        ArrayList<Tombstone> deleted = new ArrayList<>();
+        for (Document doc : DatabaseManager.getDatabase().getCollection(TOMBSTONE_COLLECTION)
+                .find(Filters.gt("deleted_at_epoch_ms", sinceEpochMs))) {
+            Number deletedAt = doc.get("deleted_at_epoch_ms", Number.class);
+            Number version = doc.get("version", Number.class);
+            deleted.add(new Tombstone(doc.getString("id"), deletedAt != null ? deletedAt.longValue() : 0L,
+                    version != null ? version.longValue() : null));
+        }
+        return deleted;
+    }
+
+    /**
+     * Builds an upserting replace-by-id write for the given task.
+     */
+    private static ReplaceOneModel<Task> replaceModel(Task task) {
+        return new ReplaceOneModel<>(Filters.eq("id", task.getId()), task, new ReplaceOptions().upsert(true));
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // ARCHIVE
+    // ══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Moves the given tasks from the hot collection into tasks_archive.
+     * The archive copy is written first, so a failure part-way never loses a task.
+     *
+     * @return true if both the archive write and the hot delete succeeded
+     */
+    public boolean archive(Collection<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return true;
+        }
+        try {
+            List<WriteModel<Task>> writes = new ArrayList<>(tasks.size());
+            List<String> ids = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                writes.add(replaceModel(task));
+                ids.add(task.getId());
+            }
+            archiveCollection().bulkWrite(writes, new BulkWriteOptions().ordered(false));
+            HashMap<String, Long> versions = storedVersions(ids);
+            collection().deleteMany(Filters.in("id", ids));
+            writeTombstones(versions);
+            return true;
+        } catch (Exception e) {
+            System.err.println("Warning: Could not archive tasks: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Searches archived tasks by title, description or assignee (case-insensitive),
+     * most recently completed first.
+     */
+    public ArrayList<Task> searchArchive(String query, int limit) {
+        ArrayList<Task> results = new ArrayList<>();
+        try {
+            Bson filter = new Document();
+            if (query != null && !query.trim().isEmpty()) {
+                Pattern pattern = Pattern.compile(Pattern.quote(query.trim()), Pattern.CASE_INSENSITIVE);
+                filter = Filters.or(
+                        Filters.regex("title", pattern),
+                        Filters.regex("description", pattern),
+                        Filters.regex("assignee_name", pattern));
+            }
+            archiveCollection().find(filter)
+                    .sort(Sorts.descending("completed_date_epoch_ms"))
+                    .limit(limit)
+                    .into(results);
+        } catch (Exception e) {
+            System.err.println("Warning: Could not search archived tasks: " + e.getMessage());
+        }
+        return results;
+    }
+
+    /**
+     * Moves one task from the archive back into the hot collection.
+     *
+     * @return the restored task, or null if it was not found or the move failed
+     */
+    public Task restoreFromArchive(String taskId) {
+        try {
+            Task task = archiveCollection().find(Filters.eq("id", taskId)).first();
+            if (task == null) {
+                return null;
+            }
+            // Restored tasks get a fresh archive window
+            task.setCompletedDate(task.getCompletedDate() != null ? new Date() : null);
+            task.markModified();
+            collection().updateOne(Filters.eq("id", taskId), stampedWrite(task), new UpdateOptions().upsert(true));
+            archiveCollection().deleteOne(Filters.eq("id", taskId));
+            DatabaseManager.getDatabase().getCollection(TOMBSTONE_COLLECTION).deleteOne(Filters.eq("id", taskId));
+            return task;
+        } catch (Exception e) {
+            System.err.println("Warning: Could not restore archived task: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // EXPORT
+    // ══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Streams every stored task to a file, one record at a time.
+     * CSV output is flat and omits comment bodies (only a comment_count column);
+     * JSON Lines is lossless and can be re-imported as-is.
+     *
+     * @return the number of tasks written
+     */
+    public long exportTasks(Path path, Format format) throws IOException {
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+             BufferedWriter out = new BufferedWriter(
+                     Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), IO_BUFFER_SIZE),
+                     IO_BUFFER_SIZE);
+             MongoCursor<Task> cursor = collection().find().batchSize(EXPORT_CURSOR_BATCH).iterator()) {
+
+            if (format == Format.CSV) {
+                writeCsvRow(out, CSV_COLUMNS);
+            }
+            Codec<Task> codec = codec();
+            JsonWriterSettings settings = JsonWriterSettings.builder().outputMode(JsonMode.RELAXED).build();
+            EncoderContext context = EncoderContext.builder().build();
+            String[] row = new String[CSV_COLUMNS.length];
+
+            while (cursor.hasNext()) {
+                Task task = cursor.next();
+                if (format == Format.CSV) {
+                    fillCsvRow(task, row);
+                    writeCsvRow(out, row);
+                } else {
+                    codec.encode(new JsonWriter(out, settings), task, context);
+                    out.write('\n');
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // IMPORT
+    // ══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Streams tasks from a file into the collection in batches.
+     * Into an empty collection batches go through insertMany; otherwise each
+     * batch is a bulk upsert by id, so re-importing an export is idempotent.
+     * A CSV row only sets the columns the file has: CSV carries no comment
+     * bodies, so replacing an existing task would wipe its comment thread.
+     * Imported tasks are stamped as modified so running clients pick them up.
+     *
+     * @param batchSize number of tasks per database round trip
+     * @return the number of tasks imported
+     */
+    public long importTasks(Path path, Format format, int batchSize) throws IOException {
+        if (batchSize <= 0) {
+            batchSize = DEFAULT_IMPORT_BATCH_SIZE;
+        }
+        MongoCollection<Task> collection = collection();
+        boolean upsert = collection.countDocuments() > 0;
+        ArrayList<Task> batch = new ArrayList<>(batchSize);
+        Set<String> csvColumns = null;
+        long count = 0;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             BufferedReader in = new BufferedReader(
+                     Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), IO_BUFFER_SIZE),
+                     IO_BUFFER_SIZE)) {
+
+            if (format == Format.CSV) {
+                CsvRecordReader csv = new CsvRecordReader(in);
+                HashMap<String, Integer> columns = new HashMap<>();
+                List<String> header = csv.next();
+                if (header == null) {
+                    return 0;
+                }
+                for (int i = 0; i < header.size(); i++) {
+                    columns.put(header.get(i).trim(), i);
+                }
+                csvColumns = columns.keySet();
+                List<String> record;
+                while ((record = csv.next()) != null) {
+                    if (record.size() == 1 && record.get(0).isEmpty()) {
+                        continue; // blank line
+                    }
+                    Task task = taskFromCsv(record, columns);
+                    task.markModified();
+                    batch.add(task);
+                    count += flushIfFull(collection, batch, batchSize, upsert, csvColumns);
+                }
+            } else {
+                Codec<Task> codec = codec();
+                DecoderContext context = DecoderContext.builder().build();
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+                    Task task = codec.decode(new JsonReader(line), context);
+                    task.markModified();
+                    batch.add(task);
+                    count += flushIfFull(collection, batch, batchSize, upsert, null);
+                }
+            }
+        }
+        count += flush(collection, batch, upsert, csvColumns);
+        return count;
+    }
+
+    private int flushIfFull(MongoCollection<Task> collection, ArrayList<Task> batch, int batchSize, boolean upsert,
+                            Set<String> csvColumns) {
+        return batch.size() >= batchSize ? flush(collection, batch, upsert, csvColumns) : 0;
+    }
+
+    /**
+     * @param csvColumns header of the CSV file being imported, or null for JSON Lines
+     */
+    private int flush(MongoCollection<Task> collection, ArrayList<Task> batch, boolean upsert,
+                      Set<String> csvColumns) {
+        int size = batch.size();
+        if (size == 0) {
+            return 0;
+        }
+        if (upsert) {
+            if (csvColumns == null) {
+                advancePastStoredVersions(batch);
+            }
+            List<WriteModel<Task>> writes = new ArrayList<>(size);
+            for (Task task : batch) {
+                writes.add(csvColumns != null ? csvUpsertModel(task, csvColumns) : replaceModel(task));
+            }
+            collection.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+        } else {
+            collection.insertMany(batch, new InsertManyOptions().ordered(false));
+        }
+        List<String> ids = new ArrayList<>(size);
+        for (Task task : batch) {
+            ids.add(task.getId());
+        }
+        stampServerTime(collection, ids);
+        batch.clear();
+        return size;
+    }
+
+    /**
+     * Raises each imported task's version above the stored copy's, so
+     * clients that already hold the stored version take the import.
+     */
+    private void advancePastStoredVersions(List<Task> batch) {
+        List<String> ids = new ArrayList<>(batch.size());
+        for (Task task : batch) {
+            ids.add(task.getId());
+        }
+        HashMap<String, Long> stored = storedVersions(ids);
+        for (Task task : batch) {
+            Long version = stored.get(task.getId());
+            if (version != null && version >= task.getVersion()) {
+                task.setVersion(version + 1);
+            }
+        }
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // CSV HELPERS
+    // ══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Builds an upsert for one imported CSV row: the columns present in the
+     * file and the revision are $set and the stored version incremented;
+     * everything else (comments above all) is only written when the row
+     * creates a new task. updated_at is stamped by the server afterwards.
+     */
+    private UpdateOneModel<Task> csvUpsertModel(Task task, Set<String> csvColumns) {
+        BsonDocument encoded = new BsonDocument();
+        codec().encode(new BsonDocumentWriter(encoded), task, EncoderContext.builder().build());
+        BsonDocument set = new BsonDocument();
+        BsonDocument setOnInsert = new BsonDocument();
+        for (Map.Entry<String, BsonValue> field : encoded.entrySet()) {
+            String name = field.getKey();
+            if ("id".equals(name) || "version".equals(name)) {
+                continue;   // id comes from the filter, version is incremented
+            }
+            if ("revision".equals(name) || "updated_at_epoch_ms".equals(name) || csvColumns.contains(name)) {
+                set.put(name, field.getValue());
+            } else {
+                setOnInsert.put(name, field.getValue());
+            }
+        }
+        Document update = new Document("$set", set).append("$inc", new Document("version", 1L));
+        if (!setOnInsert.isEmpty()) {
+            update.append("$setOnInsert", setOnInsert);
+        }
+        return new UpdateOneModel<>(Filters.eq("id", task.getId()), update, new UpdateOptions().upsert(true));
+    }
+
+    private static void fillCsvRow(Task task, String[] row) {
+        row[0] = task.getId();
+        row[1] = task.getTitle();
+        row[2] = task.getDescription();
+        row[3] = task.getStatus();
+        row[4] = task.getPriority();
+        row[5] = task.getAssigneeEmail();
+        row[6] = task.getAssigneeName();
+        row[7] = task.getCreatedByEmail();
+        row[8] = task.getCreatedByName();
+        row[9] = task.getCreatedDate() == null ? null : String.valueOf(task.getCreatedDate().getTime());
+        row[10] = task.getDueDate() == null ? null : String.valueOf(task.getDueDate().getTime());
+        row[11] = task.getCompletedDate() == null ? null : String.valueOf(task.getCompletedDate().getTime());
+        row[12] = String.valueOf(task.getCommentCount());
+    }
+
+    private static Task taskFromCsv(List<String> record, HashMap<String, Integer> columns) {
+        String id = csvValue(record, columns, "id");
+        Date created = csvDate(record, columns, "created_date_epoch_ms");
+        String status = csvValue(record, columns, "status");
+        String priority = csvValue(record, columns, "priority");
+        Task task = new Task(
+                id != null ? id : java.util.UUID.randomUUID().toString(),
+                csvValue(record, columns, "title"),
+                csvValue(record, columns, "description"),
+                status != null ? status : Task.STATUS_TODO,
+                priority != null ? priority : Task.PRIORITY_MEDIUM,
+                csvValue(record, columns, "created_by_email"),
+                csvValue(record, columns, "created_by_name"),
+                created != null ? created : new Date());
+        task.setAssignee(csvValue(record, columns, "assignee_email"), csvValue(record, columns, "assignee_name"));
+        task.setDueDate(csvDate(record, columns, "due_date_epoch_ms"));
+        task.setCompletedDate(csvDate(record, columns, "completed_date_epoch_ms"));
+        return task;
+    }
+
+    private static String csvValue(List<String> record, HashMap<String, Integer> columns, String name) {
+        Integer idx = columns.get(name);
+        if (idx == null || idx >= record.size()) {
+            return null;
+        }
+        String value = record.get(idx);
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Date csvDate(List<String> record, HashMap<String, Integer> columns, String name) {
+        String value = csvValue(record, columns, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new Date(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes one RFC 4180 row; null fields are written as empty.
+     */
+    private static void writeCsvRow(Writer out, String[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String value = fields[i];
+            if (value == null || value.isEmpty()) {
+                continue;
+            }
+            boolean quote = false;
+            for (int c = 0; c < value.length() && !quote; c++) {
+                char ch = value.charAt(c);
+                quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+            }
+            if (!quote) {
+                out.write(value);
+                continue;
+            }
+            out.write('"');
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                if (ch == '"') {
+                    out.write('"');
+                }
+                out.write(ch);
+            }
+            out.write('"');
+        }
+        out.write('\n');
+    }
+
+    /**
+     * Minimal streaming RFC 4180 reader; quoted fields may span lines.
+     * The returned list is reused between calls.
+     */
+    private static final class CsvRecordReader {
+
+        private final BufferedReader in;
+        private final ArrayList<String> record = new ArrayList<>();
+        private final StringBuilder field = new StringBuilder();
+
+        CsvRecordReader(BufferedReader in) {
+            this.in = in;
+        }
+
+        List<String> next() throws IOException {
+            record.clear();
+            field.setLength(0);
+            boolean inQuotes = false;
+            boolean any = false;
+            int ch;
+            while ((ch = in.read()) != -1) {
+                any = true;
+                if (inQuotes) {
+                    if (ch == '"') {
+                        in.mark(1);
+                        int peek = in.read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            inQuotes = false;
+                            if (peek != -1) {
+                                in.reset();
+                            }
+                        }
+                    } else {
+                        field.append((char) ch);
+                    }
+                } else if (ch == '"') {
+                    inQuotes = true;
+                } else if (ch == ',') {
+                    record.add(field.toString());
+                    field.setLength(0);
+                } else if (ch == '\n') {
+                    break;
+                } else if (ch != '\r') {
+                    field.append((char) ch);
+                }
+            }
+            if (!any) {
+                return null;
+            }
+            record.add(field.toString());
+            return record;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package palantier.service;
+
+import palantier.model.User;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * UserCodec — Encodes a User straight to / from BSON.
+ */
+class UserCodec implements Codec<User> {
+
+    @Override
+    public void encode(BsonWriter writer, User user, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        CodecSupport.writeString(writer, "email", user.getEmail());
+        CodecSupport.writeString(writer, "full_name", user.getFullName());
+        CodecSupport.writeString(writer, "password", user.getPassword());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public User decode(BsonReader reader, DecoderContext decoderContext) {
+        String email = null;
+        String fullName = null;
+        String password = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "email":
+                    email = CodecSupport.readString(reader);
+                    break;
+                case "full_name":
+                    fullName = CodecSupport.readString(reader);
+                    break;
+                case "password":
+                    password = CodecSupport.readString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new User(fullName, email, password);
+    }
+
+    @Override
+    public Class<User> getEncoderClass() {
+        return User.class;
+    }
+}
@@ -4,7 +4,15 @@ import palantier.model.User;
 
 import com.mongodb.client.MongoCollection;
 import org.bson.Document;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -15,9 +23,26 @@ import java.util.regex.Pattern;
  * - Persistence (save/load users to/from SQLite)
  *
  * Users are cached in memory and persisted to SQLite.
+ * The local snapshot holds names and emails only, never passwords, so the
+ * login form and assignee lists can start without waiting for the database;
+ * reconcile() refreshes the list later (or at once, if a login needs it).
+ * The one user who last logged in on this machine is also kept as a salted
+ * password hash, which is all an offline login can be checked against.
+ * Signing up needs the database.
  */
 public class UserManager {
 
+    private static final String CACHE_NAME = "users";
+    // Single-entry snapshot: the last user to log in, with a salted hash in place of the password
+    private static final String CREDENTIAL_NAME = "login";
+    private static final int HASH_ITERATIONS = 100_000;
+    private static final int HASH_BITS = 256;
+    private static final int SALT_BYTES = 16;
+    private final LocalCache localCache = new LocalCache();
+
+    // True while the list comes from the local snapshot (no passwords) and has not been reconciled
+    private boolean fromSnapshot;
+
     // Simple regex pattern for basic email validation
     // Matches: something@something.something
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[\\w.+-]+@[\\w.-]+\\.[a-zA-Z]{2,}$");
@@ -31,7 +56,17 @@ public class UserManager {
      */
     public UserManager() {
         DatabaseManager.initializeDatabase();
-        users = loadUsers();
+        if (localCache.hasSnapshot(CACHE_NAME)) {
+            users = new ArrayList<>(localCache.readSnapshot(CACHE_NAME, User.class).items);
+            fromSnapshot = true;
+            if (!localCache.isPending(CACHE_NAME) && hasPasswords(users)) {
+                // Written by an older build that kept passwords; rewrite it without them
+                writeDirectorySnapshot(users);
+            }
+        } else {
+            users = loadUsers();
+        }
+        DatabaseManager.addReconnectListener(this::flushPending);
     }
 
     // ══════════════════════════════════════════════════════════════════════
@@ -49,7 +84,7 @@ public class UserManager {
      * @param confirmPassword the password confirmation
      * @return null if signup succeeded, or an error message string if it failed
      */
-    public String signup(String fullName, String email, String password, String confirmPassword) {
+    public synchronized String signup(String fullName, String email, String password, String confirmPassword) {
 
         // 1. Check for empty fields
         if (fullName.trim().isEmpty() || email.trim().isEmpty()
@@ -72,7 +107,12 @@ public class UserManager {
             return "Passwords do not match. Please try again.";
         }
 
-        // 5. Check for duplicate email
+        // 5. The snapshot has no passwords, so the full list must come from the database
+        if (fromSnapshot && !reconcile()) {
+            return "Cannot create an account while offline. Please try again once the database is reachable.";
+        }
+
+        // 6. Check for duplicate email
         if (findUserByEmail(email.trim()) != null) {
             return "An account with this email already exists.";
         }
@@ -80,9 +120,12 @@ public class UserManager {
         // All checks passed — create user, add to list, and save
         User newUser = new User(fullName.trim(), email.trim(), password);
         users.add(newUser);
-        saveUsers();
+        String error = saveUsers();
+        if (error != null) {
+            users.remove(newUser);
+        }
 
-        return null; // null means success (no error)
+        return error; // null means success (no error)
     }
 
     // ══════════════════════════════════════════════════════════════════════
@@ -97,7 +140,7 @@ public class UserManager {
      * @return the User object if login succeeded, or null if it failed
      *         (check getLoginError() for the specific error message)
      */
-    public User login(String email, String password) {
+    public synchronized User login(String email, String password) {
 
         // Check for empty fields
         if (email.trim().isEmpty() || password.isEmpty()) {
@@ -105,14 +148,37 @@ public class UserManager {
             return null;
         }
 
-        // Find user by email
+        // Find user by email (an account created elsewhere may be missing from the snapshot)
         User user = findUserByEmail(email.trim());
+        if (user == null && fromSnapshot && reconcile()) {
+            user = findUserByEmail(email.trim());
+        }
 
         if (user == null) {
             lastLoginError = "Account does not exist. Please sign up first.";
             return null;
         }
 
+        // Snapshot entries carry no password: check the saved hash, else ask the database
+        if (user.getPassword() == null) {
+            Boolean offlineMatch = checkSavedCredential(user.getEmail(), password);
+            if (Boolean.TRUE.equals(offlineMatch)) {
+                lastLoginError = null;
+                return user;
+            }
+            if (!reconcile()) {
+                lastLoginError = offlineMatch != null
+                        ? "Incorrect password. Please try again."
+                        : "Cannot verify this account while offline. Please try again once the database is reachable.";
+                return null;
+            }
+            user = findUserByEmail(email.trim());
+            if (user == null) {
+                lastLoginError = "Account does not exist. Please sign up first.";
+                return null;
+            }
+        }
+
         // Verify password
         if (!user.getPassword().equals(password)) {
             lastLoginError = "Incorrect password. Please try again.";
@@ -120,6 +186,7 @@ public class UserManager {
         }
 
         // Login successful
+        saveCredential(user, password);
         lastLoginError = null;
         return user;
     }
@@ -145,14 +212,14 @@ public class UserManager {
      *
      * @return ArrayList of all registered Users
      */
-    public ArrayList<User> getAllUsers() {
+    public synchronized ArrayList<User> getAllUsers() {
         return new ArrayList<>(users);
     }
 
     /**
      * Returns true if a user with this email exists.
      */
-    public boolean isValidUserEmail(String email) {
+    public synchronized boolean isValidUserEmail(String email) {
         if (email == null || email.trim().isEmpty()) {
             return false;
         }
@@ -170,6 +237,72 @@ public class UserManager {
         return EMAIL_PATTERN.matcher(email).matches();
     }
 
+    /**
+     * Replaces the saved offline credential with this user's, as a salted
+     * PBKDF2 hash of the password.
+     */
+    private void saveCredential(User user, String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        new SecureRandom().nextBytes(salt);
+        byte[] hash = hashPassword(password, salt);
+        if (hash == null) {
+            return;
+        }
+        Base64.Encoder base64 = Base64.getEncoder();
+        User credential = new User(user.getFullName(), user.getEmail(),
+                base64.encodeToString(salt) + "$" + base64.encodeToString(hash));
+        localCache.writeSnapshot(CREDENTIAL_NAME, Collections.singletonList(credential), User.class, 0L);
+    }
+
+    /**
+     * Checks a password against the saved offline credential.
+     *
+     * @return null if no credential is saved for this email, else whether the password matches
+     */
+    private Boolean checkSavedCredential(String email, String password) {
+        for (User credential : localCache.readSnapshot(CREDENTIAL_NAME, User.class).items) {
+            if (!credential.getEmail().equalsIgnoreCase(email) || credential.getPassword() == null) {
+                continue;
+            }
+            String[] parts = credential.getPassword().split("\\$");
+            if (parts.length != 2) {
+                return null;
+            }
+            try {
+                Base64.Decoder base64 = Base64.getDecoder();
+                byte[] hash = hashPassword(password, base64.decode(parts[0]));
+                return hash != null && MessageDigest.isEqual(hash, base64.decode(parts[1]));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * PBKDF2-HMAC-SHA256 of the password, or null if the JRE lacks the algorithm.
+     */
+    private static byte[] hashPassword(String password, byte[] salt) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, HASH_ITERATIONS, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            System.err.println("Warning: Could not hash password for offline login: " + e.getMessage());
+            return null;
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static boolean hasPasswords(List<User> list) {
+        for (User user : list) {
+            if (user.getPassword() != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Searches the user list for a user with the given email (case-insensitive).
      *
@@ -189,49 +322,108 @@ public class UserManager {
     // ══════════════════════════════════════════════════════════════════════
 
     /**
-     * Saves the current list of users to the data file using Object Serialization.
-     * This is called automatically after every successful signup.
+     * Brings the in-memory list up to date with the database. If a snapshot
+     * from an older build still holds offline signups, accounts created
+     * elsewhere are merged in and the result written back; otherwise the
+     * stored list replaces ours.
+     *
+     * @return false if the database could not be reached
+     */
+    public synchronized boolean reconcile() {
+        ArrayList<User> remote = fetchUsers();
+        if (remote == null) {
+            return false;
+        }
+        if (localCache.isPending(CACHE_NAME)) {
+            for (User user : remote) {
+                if (findUserByEmail(user.getEmail()) == null) {
+                    users.add(user);
+                }
+            }
+            if (saveUsers() != null) {
+                return false;
+            }
+            localCache.setPending(CACHE_NAME, false);
+        } else {
+            users = remote;
+            writeDirectorySnapshot(users);
+        }
+        fromSnapshot = false;
+        return true;
+    }
+
+    private synchronized void flushPending() {
+        if (localCache.isPending(CACHE_NAME)) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Writes the whole list to the database and refreshes the local snapshot.
+     * Only called while the list holds real passwords (never from the snapshot).
+     *
+     * @return null on success, or an error message
      */
-    private void saveUsers() {
+    private String saveUsers() {
+        if (!DatabaseManager.isOnline()) {
+            return "Cannot create an account while offline. Please try again once the database is reachable.";
+        }
         try {
-            MongoCollection<Document> collection = DatabaseManager.getDatabase().getCollection("users");
+            MongoCollection<User> collection = DatabaseManager.getCollection("users", User.class);
             collection.deleteMany(new Document());
-            
-            if (users.isEmpty()) {
-                return;
-            }
-            
-            List<Document> docs = new ArrayList<>();
-            for (User user : users) {
-                Document doc = new Document("email", user.getEmail())
-                        .append("full_name", user.getFullName())
-                        .append("password", user.getPassword());
-                docs.add(doc);
+
+            if (!users.isEmpty()) {
+                collection.insertMany(users);
             }
-            collection.insertMany(docs);
         } catch (Exception e) {
             System.err.println("Warning: Could not save users to database: " + e.getMessage());
+            DatabaseManager.markOffline();
+            return "Could not save the account. Please try again.";
+        }
+        writeDirectorySnapshot(users);
+        return null;
+    }
+
+    /**
+     * Snapshots names and emails only; passwords stay in the database.
+     */
+    private void writeDirectorySnapshot(List<User> list) {
+        ArrayList<User> directory = new ArrayList<>(list.size());
+        for (User user : list) {
+            directory.add(new User(user.getFullName(), user.getEmail(), null));
         }
+        localCache.writeSnapshot(CACHE_NAME, directory, User.class, System.currentTimeMillis());
     }
 
     /**
      * Loads users from the data file.
      * If the file does not exist (first run) or is corrupted, returns an empty
-     * list.
+     * list. Falls back to the local snapshot when the database is unreachable.
      */
     private ArrayList<User> loadUsers() {
+        if (DatabaseManager.checkConnection() && !localCache.isPending(CACHE_NAME)) {
+            ArrayList<User> loaded = fetchUsers();
+            if (loaded != null) {
+                writeDirectorySnapshot(loaded);
+                return loaded;
+            }
+        }
+        fromSnapshot = true;
+        return new ArrayList<>(localCache.readSnapshot(CACHE_NAME, User.class).items);
+    }
+
+    /**
+     * Reads the whole collection, or returns null if the database is unreachable.
+     */
+    private ArrayList<User> fetchUsers() {
         ArrayList<User> loaded = new ArrayList<>();
         try {
-            MongoCollection<Document> collection = DatabaseManager.getDatabase().getCollection("users");
-            for (Document doc : collection.find()) {
-                loaded.add(new User(
-                        doc.getString("full_name"),
-                        doc.getString("email"),
-                        doc.getString("password")));
-            }
+            DatabaseManager.getCollection("users", User.class).find().into(loaded);
+            return loaded;
         } catch (Exception e) {
             System.err.println("Warning: Could not load users from database: " + e.getMessage());
+            DatabaseManager.markOffline();
+            return null;
         }
-        return loaded;
     }
 }
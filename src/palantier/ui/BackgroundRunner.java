@@ -0,0 +1,172 @@
+package palantier.ui;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * BackgroundRunner — Runs data queries and task writes off the Event Dispatch Thread.
+ *
+ * Work runs in submission order on a single daemon thread, so a refresh
+ * submitted after a write always sees that write. Results are handed back
+ * on the EDT. Work submitted under a key supersedes earlier work with the
+ * same key: if the older work has not started it is skipped, and if it has,
+ * its result is dropped. That keeps fast filter changes from painting stale
+ * lists. Writes are submitted without a key and are never dropped.
+ * If the work throws, onFailure (when given) is called on the EDT instead
+ * of onResult, so callers can re-enable their controls and show the error.
+ *
+ * submit() and the busy listeners are meant to be used on the EDT.
+ */
+public class BackgroundRunner {
+
+    private final ExecutorService executor;
+    private final ConcurrentHashMap<String, Long> latestByKey = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Consumer<Boolean>> busyListeners = new CopyOnWriteArrayList<>();
+
+    // Submitted but not yet delivered (EDT only)
+    private int pending;
+
+    public BackgroundRunner(String threadName) {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs a write (or any work that must not be dropped) and delivers its result on the EDT.
+     */
+    public <T> void submit(Callable<T> work, Consumer<T> onResult) {
+        submit(null, work, onResult, null);
+    }
+
+    /**
+     * Runs a write and delivers its result, or the exception it threw, on the EDT.
+     */
+    public <T> void submit(Callable<T> work, Consumer<T> onResult, Consumer<Exception> onFailure) {
+        submit(null, work, onResult, onFailure);
+    }
+
+    /**
+     * Runs work in the background and delivers its result on the EDT, unless
+     * newer work was submitted under the same key in the meantime.
+     *
+     * @param key      supersession key, or null to never drop this work
+     * @param onResult called on the EDT with the result (may be null)
+     */
+    public <T> void submit(String key, Callable<T> work, Consumer<T> onResult) {
+        submit(key, work, onResult, null);
+    }
+
+    /**
+     * @param onFailure called on the EDT if the work throws; null to only log the failure
+     */
+    public <T> void submit(String key, Callable<T> work, Consumer<T> onResult, Consumer<Exception> onFailure) {
+        long generation = sequence.incrementAndGet();
+        if (key != null) {
+            latestByKey.put(key, generation);
+        }
+        setPending(pending + 1);
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                T result = null;
+                Exception failure = null;
+                boolean stale = isStale(key, generation);
+                if (!stale) {
+                    try {
+                        result = work.call();
+                    } catch (Exception e) {
+                        failure = e;
+                    }
+                }
+                deliver(key, generation, stale, result, failure, onResult, onFailure);
+            }
+        });
+    }
+
+    private <T> void deliver(String key, long generation, boolean skipped, T result, Exception failure,
+                             Consumer<T> onResult, Consumer<Exception> onFailure) {
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                setPending(pending - 1);
+                if (skipped || isStale(key, generation)) {
+                    return;
+                }
+                if (failure != null) {
+                    System.err.println("Warning: Background task failed: " + failure.getMessage());
+                    if (onFailure != null) {
+                        onFailure.accept(failure);
+                    }
+                    return;
+                }
+                if (onResult != null) {
+                    onResult.accept(result);
+                }
+            }
+        });
+    }
+
+    private boolean isStale(String key, long generation) {
+        if (key == null) {
+            return false;
+        }
+        Long latest = latestByKey.get(key);
+        return latest != null && latest != generation;
+    }
+
+    /**
+     * Registers a callback told (on the EDT) when work starts and when the queue drains.
+     */
+    public void addBusyListener(Consumer<Boolean> listener) {
+        busyListeners.add(listener);
+    }
+
+    public boolean isBusy() {
+        return pending > 0;
+    }
+
+    private void setPending(int count) {
+        boolean wasBusy = pending > 0;
+        pending = count;
+        boolean busy = pending > 0;
+        if (busy != wasBusy) {
+            for (Consumer<Boolean> listener : busyListeners) {
+                listener.accept(busy);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting work; work already submitted still runs.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Waits up to {@code timeoutMs} for submitted work to finish after shutdown().
+     *
+     * @return true if all work finished in time
+     */
+    public boolean awaitTermination(long timeoutMs) {
+        try {
+            return executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
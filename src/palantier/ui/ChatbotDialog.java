@@ -1,6 +1,7 @@
 package palantier.ui;
 
 import palantier.model.User;
+import palantier.service.ChatSession;
 import palantier.service.ChatbotService;
 import palantier.service.TaskManager;
 
@@ -10,25 +11,40 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.util.List;
 
 /**
  * ChatbotDialog — An AI assistant chat interface for Palantier.
+ *
+ * Answers are streamed: each token is appended to the history as it
+ * arrives, so the reply starts showing after the first token rather than
+ * once the whole answer is complete. Sending another message while an
+ * answer is streaming, or closing the dialog, cancels that request.
+ *
+ * The dialog keeps one ChatSession, so follow-up questions ("and which of
+ * those are mine?") are answered in the context of the conversation.
  */
 public class ChatbotDialog extends JDialog {
 
     private User currentUser;
     private TaskManager taskManager;
     private ChatbotService chatbotService;
+    // The conversation shown in this dialog, so follow-up questions keep their context
+    private ChatSession chatSession;
 
     private JTextArea chatHistory;
     private JTextField messageInput;
     private JButton sendButton;
 
+    // Worker streaming the current answer, or null when idle (EDT only)
+    private SwingWorker<String, String> activeReply;
+
     public ChatbotDialog(JFrame parent, User currentUser, TaskManager taskManager) {
         super(parent, "AI Assistant", false);
         this.currentUser = currentUser;
         this.taskManager = taskManager;
         this.chatbotService = new ChatbotService();
+        this.chatSession = chatbotService.startSession(currentUser, taskManager);
 
         initializeUI();
     }
@@ -37,6 +53,8 @@ public class ChatbotDialog extends JDialog {
         setSize(480, 600);
         setLocationRelativeTo(getParent());
         setResizable(true);
+        // Dispose (not just hide) on close, so a streaming request is cancelled
+        setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
 
         JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
         mainPanel.setBackground(UITheme.BG_DARK);
@@ -98,36 +116,70 @@ public class ChatbotDialog extends JDialog {
             return;
         }
 
+        // A newer prompt replaces an answer that is still streaming
+        stopActiveReply();
+
         appendMessage("You", text);
         messageInput.setText("");
-        messageInput.setEnabled(false);
-        sendButton.setEnabled(false);
 
-        // Call the service asynchronously
-        SwingWorker<String, Void> worker = new SwingWorker<String, Void>() {
+        // Stream the answer: tokens are published from the worker and appended on the EDT
+        chatHistory.append("Assistant:\n");
+        SwingWorker<String, String> worker = new SwingWorker<String, String>() {
             @Override
             protected String doInBackground() throws Exception {
-                // Pass null for apiKey so ChatbotService uses the hardcoded DEFAULT_API_KEY
-                return chatbotService.getChatbotResponse(text, null, currentUser, taskManager);
+                // Pass null for apiKey so ChatbotService falls back to the GROQ_API_KEY environment variable
+                return chatbotService.streamChatbotResponse(chatSession, text, null, token -> publish(token));
+            }
+
+            @Override
+            protected void process(List<String> tokens) {
+                if (activeReply != this) {
+                    return;     // replaced by a newer prompt or the dialog closed
+                }
+                for (String token : tokens) {
+                    chatHistory.append(token);
+                }
+                chatHistory.setCaretPosition(chatHistory.getDocument().getLength());
             }
 
             @Override
             protected void done() {
+                if (activeReply != this) {
+                    return;
+                }
+                activeReply = null;
                 try {
-                    String response = get();
-                    appendMessage("Assistant", response);
+                    get();
+                    chatHistory.append("\n\n");
+                    chatHistory.setCaretPosition(chatHistory.getDocument().getLength());
                 } catch (Exception e) {
+                    chatHistory.append("\n\n");
                     appendMessage("System", "Error: " + e.getMessage());
-                } finally {
-                    messageInput.setEnabled(true);
-                    sendButton.setEnabled(true);
-                    messageInput.requestFocus();
                 }
             }
         };
+        activeReply = worker;
         worker.execute();
     }
 
+    /**
+     * Cancels the answer still streaming (if any) and closes it off in the history.
+     */
+    private void stopActiveReply() {
+        if (activeReply == null) {
+            return;
+        }
+        activeReply = null;
+        chatbotService.cancelInFlight();
+        chatHistory.append(" (stopped)\n\n");
+    }
+
+    @Override
+    public void dispose() {
+        stopActiveReply();
+        super.dispose();
+    }
+
     private void appendMessage(String sender, String message) {
         chatHistory.append(sender + ":\n");
         chatHistory.append(message + "\n\n");
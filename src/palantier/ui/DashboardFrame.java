@@ -13,18 +13,26 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.awt.geom.RoundRectangle2D;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashSet;
 
 /**
  * DashboardFrame — Full task management dashboard for Palantier.
  *
  * Provides:
- * - Task list with styled cards
+ * - Virtualized task list (JList + stamp-style card renderer) that only
+ *   lays out and paints the visible rows
  * - Filter bar (status, priority, assignee)
+ * - Multi-select (Ctrl/Shift+click) with bulk status, priority, assign and delete
  * - Create Task button + dialog
- * - Live statistics cards
+ * - Live statistics cards (refreshed when the background sync merges remote changes)
+ * - All data access runs on a BackgroundRunner, so database reads and writes
+ *   never block the Event Dispatch Thread; a "Working..." label shows while busy
  * - Logout functionality
  */
 public class DashboardFrame extends JFrame {
@@ -35,7 +43,10 @@ public class DashboardFrame extends JFrame {
     private NotificationManager notificationManager;
 
     // UI references for dynamic updates
-    private JPanel taskListPanel;
+    private JPanel taskListContainer;
+    private JList<Task> taskList;
+    private TaskListModel taskListModel;
+    private TaskCardRenderer taskCardRenderer;
     private JLabel totalStatLabel;
     private JLabel pendingStatLabel;
     private JLabel completedStatLabel;
@@ -45,6 +56,30 @@ public class DashboardFrame extends JFrame {
     private JComboBox<String> statusFilter;
     private JComboBox<String> priorityFilter;
     private JComboBox<String> assigneeFilter;
+    private JLabel busyLabel;
+
+    // Queries and writes run here; results are applied on the EDT
+    private final BackgroundRunner runner = new BackgroundRunner("palantier-dashboard-worker");
+    // Shows the busy label only for work that takes longer than this
+    private static final int BUSY_LABEL_DELAY_MS = 200;
+    // On exit, how long queued writes and the closing snapshot may take before the JVM quits
+    private static final long EXIT_WAIT_MS = 5000L;
+    // Set once the session's shutdown work has been queued (EDT only)
+    private boolean sessionEnded;
+    // Folds filter changes, sync notifications and post-write refreshes into one query per frame
+    private final RefreshScheduler refreshScheduler = new RefreshScheduler(this::runTaskListRefresh);
+
+    // Completion dates in the archive list; formatted on the EDT only
+    private final SimpleDateFormat archiveDateFormat = new SimpleDateFormat("dd MMM yyyy");
+
+    // Users for the assignee filter and bulk assign combo, loaded in the background
+    private ArrayList<User> assigneeUsers = new ArrayList<>();
+
+    // Multi-select state for bulk actions (Ctrl/Shift+click on a card)
+    private final LinkedHashSet<String> selectedTaskIds = new LinkedHashSet<>();
+    private JPanel bulkBar;
+    private JLabel bulkSelectionLabel;
+    private JComboBox<String> bulkAssigneeCombo;
 
     public DashboardFrame(User user, UserManager userManager) {
         this.currentUser = user;
@@ -90,7 +125,8 @@ public class DashboardFrame extends JFrame {
         notificationsButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                showNotificationsDialog();
+                runner.submit("notifications", notificationManager::getAllNotificationsNewestFirst,
+                        notifications -> showNotificationsDialog(notifications));
             }
         });
         rightPanel.add(notificationsButton);
@@ -105,6 +141,21 @@ public class DashboardFrame extends JFrame {
         });
         rightPanel.add(chatbotButton);
 
+        JButton archiveButton = UITheme.createSecondaryButton("Archive");
+        archiveButton.setPreferredSize(new Dimension(100, 34));
+        archiveButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showArchiveDialog();
+            }
+        });
+        rightPanel.add(archiveButton);
+
+        busyLabel = UITheme.createLabel("Working...", UITheme.FONT_LINK, UITheme.TEXT_MUTED);
+        busyLabel.setVisible(false);
+        rightPanel.add(busyLabel);
+        installBusyIndicator();
+
         notificationBadgeLabel = UITheme.createLabel("0", UITheme.FONT_LABEL, UITheme.WARNING);
         rightPanel.add(notificationBadgeLabel);
 
@@ -225,21 +276,40 @@ public class DashboardFrame extends JFrame {
         // Wrap filter bar above the task list
         JPanel midPanel = new JPanel(new BorderLayout());
         midPanel.setOpaque(false);
-        midPanel.add(filterBar, BorderLayout.NORTH);
-
-        // ── Task list (scrollable) ──────────────────────────────────────
-        taskListPanel = new JPanel();
-        taskListPanel.setLayout(new BoxLayout(taskListPanel, BoxLayout.Y_AXIS));
-        taskListPanel.setBackground(UITheme.BG_DARK);
-        taskListPanel.setBorder(BorderFactory.createEmptyBorder(4, 0, 4, 0));
 
-        JScrollPane scrollPane = new JScrollPane(taskListPanel);
+        JPanel controlsPanel = new JPanel();
+        controlsPanel.setLayout(new BoxLayout(controlsPanel, BoxLayout.Y_AXIS));
+        controlsPanel.setOpaque(false);
+        filterBar.setAlignmentX(Component.LEFT_ALIGNMENT);
+        controlsPanel.add(filterBar);
+        bulkBar = createBulkActionBar();
+        bulkBar.setAlignmentX(Component.LEFT_ALIGNMENT);
+        controlsPanel.add(bulkBar);
+        midPanel.add(controlsPanel, BorderLayout.NORTH);
+
+        // ── Task list (scrollable, virtualized) ─────────────────────────
+        taskListModel = new TaskListModel();
+        taskCardRenderer = new TaskCardRenderer(selectedTaskIds);
+        taskList = createTaskList();
+
+        JScrollPane scrollPane = new JScrollPane(taskList);
         scrollPane.setBorder(null);
         scrollPane.setBackground(UITheme.BG_DARK);
         scrollPane.getViewport().setBackground(UITheme.BG_DARK);
         scrollPane.getVerticalScrollBar().setUnitIncrement(16);
 
-        midPanel.add(scrollPane, BorderLayout.CENTER);
+        JPanel emptyPanel = new JPanel(new GridBagLayout());
+        emptyPanel.setBackground(UITheme.BG_DARK);
+        emptyPanel.add(UITheme.createLabel(
+                "No tasks found. Click '+ New Task' to get started!",
+                UITheme.FONT_BODY, UITheme.TEXT_MUTED));
+
+        taskListContainer = new JPanel(new CardLayout());
+        taskListContainer.setOpaque(false);
+        taskListContainer.add(scrollPane, "list");
+        taskListContainer.add(emptyPanel, "empty");
+
+        midPanel.add(taskListContainer, BorderLayout.CENTER);
         centerPanel.add(midPanel, BorderLayout.CENTER);
         background.add(centerPanel, BorderLayout.CENTER);
 
@@ -272,21 +342,79 @@ public class DashboardFrame extends JFrame {
 
         background.add(bottomBar, BorderLayout.SOUTH);
 
-        // ── Initial data load ────────────────────────────────────────────
-        taskManager.generateDueSoonNotifications();
+        // ── Initial data load (in the background) ────────────────────────
+        loadAssignees();
         refreshTaskList();
-        refreshStats();
-        refreshNotificationBadge();
+
+        // ── Pick up other clients' changes (and warm-start reconcile) ────
+        taskManager.addChangeListener(new Runnable() {
+            @Override
+            public void run() {
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        refreshTaskList();
+                    }
+                });
+            }
+        });
+        taskManager.startSync(TaskManager.DEFAULT_SYNC_INTERVAL_MS);
+
+        // ── Keep the local snapshot current for the next offline start ───
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                // EXIT_ON_CLOSE quits as soon as this returns, without calling dispose()
+                endSession();
+                runner.awaitTermination(EXIT_WAIT_MS);
+            }
+        });
+    }
+
+    @Override
+    public void dispose() {
+        endSession();
+        super.dispose();
+    }
+
+    /**
+     * Queues the session's shutdown on the runner, behind any writes still in
+     * flight, so the snapshot is written once, off the EDT, and includes them.
+     */
+    private void endSession() {
+        if (sessionEnded) {
+            return;
+        }
+        sessionEnded = true;
+        refreshScheduler.cancel();
+        runner.submit(() -> {
+            taskManager.close();
+            taskManager.saveLocalSnapshot();
+            notificationManager.close();
+            return null;
+        }, null);
+        runner.shutdown();
     }
 
     // ══════════════════════════════════════════════════════════════════════
     // TASK LIST RENDERING
     // ══════════════════════════════════════════════════════════════════════
 
+    /**
+     * Schedules a refresh of the task list, stats and notification badge.
+     * Calls made within the same frame (e.g. "Clear" resetting three filters)
+     * are coalesced into a single refresh by the RefreshScheduler.
+     */
     private void refreshTaskList() {
-        taskManager.generateDueSoonNotifications();
-        taskListPanel.removeAll();
+        refreshScheduler.request();
+    }
 
+    /**
+     * Re-queries the task list (plus stats and the notification badge) in the
+     * background. Filter values are read here on the EDT; a newer refresh
+     * supersedes one still in flight, so rapid filter changes only paint once.
+     */
+    private void runTaskListRefresh() {
         String selectedStatus = (String) statusFilter.getSelectedItem();
         String selectedPriority = (String) priorityFilter.getSelectedItem();
 
@@ -299,148 +427,248 @@ public class DashboardFrame extends JFrame {
             assigneeValue = "Unassigned";
         } else {
             // Map the selected name back to email
-            ArrayList<User> users = userManager.getAllUsers();
             int userIdx = assigneeIdx - 2; // offset for "All" and "Unassigned"
-            if (userIdx >= 0 && userIdx < users.size()) {
-                assigneeValue = users.get(userIdx).getEmail();
+            if (userIdx >= 0 && userIdx < assigneeUsers.size()) {
+                assigneeValue = assigneeUsers.get(userIdx).getEmail();
             }
         }
 
-        ArrayList<Task> tasks = taskManager.getFilteredTasks(selectedStatus, selectedPriority, assigneeValue);
+        String assignee = assigneeValue;
+        runner.submit("task-list", () -> {
+            taskManager.generateDueSoonNotifications();
+            return taskManager.getFilteredTasks(selectedStatus, selectedPriority, assignee);
+        }, this::applyTaskList);
+        refreshStats();
+        refreshNotificationBadge();
+    }
 
-        if (tasks.isEmpty()) {
-            JPanel emptyPanel = new JPanel(new GridBagLayout());
-            emptyPanel.setOpaque(false);
-            emptyPanel.setPreferredSize(new Dimension(100, 200));
+    private void applyTaskList(ArrayList<Task> tasks) {
+        setTitle(taskManager.isOffline() ? "Palantier — Dashboard (offline)" : "Palantier — Dashboard");
 
-            JLabel emptyLabel = UITheme.createLabel(
-                    "No tasks found. Click '+ New Task' to get started!",
-                    UITheme.FONT_BODY, UITheme.TEXT_MUTED);
-            emptyPanel.add(emptyLabel);
-            taskListPanel.add(emptyPanel);
-        } else {
-            for (Task task : tasks) {
-                taskListPanel.add(createTaskCard(task));
-                taskListPanel.add(Box.createRigidArea(new Dimension(0, 8)));
-            }
+        // Drop selections that are no longer visible under the current filters
+        LinkedHashSet<String> visibleIds = new LinkedHashSet<>();
+        for (Task task : tasks) {
+            visibleIds.add(task.getId());
         }
+        selectedTaskIds.retainAll(visibleIds);
+        updateBulkBar();
 
-        taskListPanel.revalidate();
-        taskListPanel.repaint();
-        refreshStats();
-        refreshNotificationBadge();
+        taskListModel.setTasks(tasks);
+        ((CardLayout) taskListContainer.getLayout()).show(taskListContainer, tasks.isEmpty() ? "empty" : "list");
     }
 
     /**
-     * Creates a styled task card for the task list.
+     * Creates the task list. Rows have a fixed height and the renderer is a
+     * single stamp, so only the visible rows are ever measured or painted.
+     * Click opens a task; Ctrl/Shift/Meta+click toggles it for bulk actions.
      */
-    private JPanel createTaskCard(Task task) {
-        JPanel card = new JPanel() {
-            private boolean hovering = false;
-
-            {
-                addMouseListener(new java.awt.event.MouseAdapter() {
-                    @Override
-                    public void mouseEntered(java.awt.event.MouseEvent e) {
-                        hovering = true;
-                        repaint();
-                    }
-
-                    @Override
-                    public void mouseExited(java.awt.event.MouseEvent e) {
-                        hovering = false;
-                        repaint();
-                    }
-
-                    @Override
-                    public void mouseClicked(java.awt.event.MouseEvent e) {
-                        openTaskDetail(task);
-                    }
-                });
+    private JList<Task> createTaskList() {
+        JList<Task> list = new JList<>(taskListModel);
+        list.setCellRenderer(taskCardRenderer);
+        list.setFixedCellHeight(TaskCardRenderer.ROW_HEIGHT);
+        // A fixed (minimum) width stops JList from measuring every row; the list
+        // still tracks the viewport width because its preferred width is smaller
+        list.setFixedCellWidth(400);
+        list.setBackground(UITheme.BG_DARK);
+        list.setBorder(BorderFactory.createEmptyBorder(4, 0, 4, 0));
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setCursor(new Cursor(Cursor.HAND_CURSOR));
+
+        MouseAdapter mouseHandler = new MouseAdapter() {
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                setHoverRow(rowAt(list, e.getPoint()));
             }
 
             @Override
-            protected void paintComponent(Graphics g) {
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                Color baseColor = task.isOverdue() ? new Color(52, 24, 34) : UITheme.BG_CARD;
-                g2.setColor(hovering ? UITheme.BG_INPUT_FOCUS : baseColor);
-                g2.fill(new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 14, 14));
-
-                // Subtle left accent bar
-                Color accent = getStatusColor(task.getStatus());
-                g2.setColor(accent);
-                g2.fill(new RoundRectangle2D.Float(0, 0, 4, getHeight(), 4, 4));
+            public void mouseExited(MouseEvent e) {
+                setHoverRow(-1);
+            }
 
-                g2.dispose();
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = rowAt(list, e.getPoint());
+                if (row < 0 || !SwingUtilities.isLeftMouseButton(e)) {
+                    return;
+                }
+                Task task = taskListModel.getElementAt(row);
+                if (e.isControlDown() || e.isShiftDown() || e.isMetaDown()) {
+                    toggleTaskSelection(task.getId());
+                    repaintRow(row);
+                } else {
+                    openTaskDetail(task);
+                }
             }
         };
-        card.setLayout(new BorderLayout(12, 0));
-        card.setOpaque(false);
-        card.setBorder(BorderFactory.createEmptyBorder(14, 18, 14, 18));
-        card.setMaximumSize(new Dimension(Integer.MAX_VALUE, 80));
-        card.setCursor(new Cursor(Cursor.HAND_CURSOR));
-
-        // ── Left: Title + meta ──────────────────────────────────────────
-        JPanel leftPanel = new JPanel();
-        leftPanel.setLayout(new BoxLayout(leftPanel, BoxLayout.Y_AXIS));
-        leftPanel.setOpaque(false);
-
-        JLabel titleLabel = new JLabel(task.getTitle());
-        titleLabel.setFont(UITheme.FONT_LABEL);
-        titleLabel.setForeground(UITheme.TEXT_PRIMARY);
-        titleLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-        leftPanel.add(titleLabel);
-
-        leftPanel.add(Box.createRigidArea(new Dimension(0, 4)));
-
-        String assigneeText = task.isAssigned() ? task.getAssigneeName() : "Unassigned";
-        JLabel metaLabel = new JLabel(assigneeText + "  •  " + task.getFormattedCreatedDate()
-                + "  •  " + task.getCommentCount() + " comment" + (task.getCommentCount() != 1 ? "s" : ""));
-        metaLabel.setFont(UITheme.FONT_LINK);
-        metaLabel.setForeground(UITheme.TEXT_MUTED);
-        metaLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-        leftPanel.add(metaLabel);
-
-        card.add(leftPanel, BorderLayout.CENTER);
-
-        // ── Right: Status + Priority badges ─────────────────────────────
-        JPanel rightPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 0));
-        rightPanel.setOpaque(false);
+        list.addMouseListener(mouseHandler);
+        list.addMouseMotionListener(mouseHandler);
+        return list;
+    }
 
-        rightPanel.add(createBadge(task.getStatus(), getStatusColor(task.getStatus())));
-        rightPanel.add(createBadge(task.getPriority(), getPriorityColor(task.getPriority())));
-        if (task.isOverdue()) {
-            rightPanel.add(createBadge("Overdue", UITheme.ERROR));
-        } else if (isDueSoon(task)) {
-            rightPanel.add(createBadge("Due Soon", UITheme.WARNING));
+    /**
+     * Returns the row under the point, or -1 (locationToIndex alone snaps to the nearest row).
+     */
+    private int rowAt(JList<Task> list, Point point) {
+        int row = list.locationToIndex(point);
+        if (row < 0) {
+            return -1;
         }
+        Rectangle bounds = list.getCellBounds(row, row);
+        return bounds != null && bounds.contains(point) ? row : -1;
+    }
 
-        card.add(rightPanel, BorderLayout.EAST);
+    private void setHoverRow(int row) {
+        int previous = taskCardRenderer.getHoverIndex();
+        if (previous == row) {
+            return;
+        }
+        taskCardRenderer.setHoverIndex(row);
+        repaintRow(previous);
+        repaintRow(row);
+    }
 
-        return card;
+    private void repaintRow(int row) {
+        if (row < 0 || row >= taskListModel.getSize()) {
+            return;
+        }
+        Rectangle bounds = taskList.getCellBounds(row, row);
+        if (bounds != null) {
+            taskList.repaint(bounds);
+        }
     }
 
+    // ══════════════════════════════════════════════════════════════════════
+    // BULK ACTIONS
+    // ══════════════════════════════════════════════════════════════════════
+
     /**
-     * Creates a small colored badge label.
+     * Creates the bulk action bar shown while one or more cards are selected.
      */
-    private JLabel createBadge(String text, Color color) {
-        JLabel badge = new JLabel(text) {
+    private JPanel createBulkActionBar() {
+        JPanel bar = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
+        bar.setOpaque(false);
+        bar.setBorder(BorderFactory.createEmptyBorder(0, 0, 12, 0));
+
+        bulkSelectionLabel = UITheme.createLabel("0 selected", UITheme.FONT_LABEL, UITheme.ACCENT_HOVER);
+        bar.add(bulkSelectionLabel);
+
+        String[] statusItems = {"Set status...", Task.STATUS_TODO, Task.STATUS_IN_PROGRESS, Task.STATUS_DONE};
+        JComboBox<String> bulkStatus = UITheme.createStyledComboBox(statusItems);
+        bulkStatus.setPreferredSize(new Dimension(140, 34));
+        bulkStatus.addActionListener(new ActionListener() {
             @Override
-            protected void paintComponent(Graphics g) {
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 30));
-                g2.fill(new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 14, 14));
-                super.paintComponent(g);
-                g2.dispose();
+            public void actionPerformed(ActionEvent e) {
+                if (bulkStatus.getSelectedIndex() <= 0) {
+                    return;
+                }
+                String status = (String) bulkStatus.getSelectedItem();
+                bulkStatus.setSelectedIndex(0);
+                ArrayList<String> ids = new ArrayList<>(selectedTaskIds);
+                runner.submit(() -> taskManager.bulkUpdateStatus(ids, status),
+                        DashboardFrame.this::applyBulkResult, DashboardFrame.this::applyBulkFailure);
             }
-        };
-        badge.setFont(new Font("Segoe UI", Font.BOLD, 11));
-        badge.setForeground(color);
-        badge.setOpaque(false);
-        badge.setBorder(BorderFactory.createEmptyBorder(4, 10, 4, 10));
-        return badge;
+        });
+        bar.add(bulkStatus);
+
+        String[] priorityItems = {"Set priority...", Task.PRIORITY_LOW, Task.PRIORITY_MEDIUM, Task.PRIORITY_HIGH};
+        JComboBox<String> bulkPriority = UITheme.createStyledComboBox(priorityItems);
+        bulkPriority.setPreferredSize(new Dimension(140, 34));
+        bulkPriority.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (bulkPriority.getSelectedIndex() <= 0) {
+                    return;
+                }
+                String priority = (String) bulkPriority.getSelectedItem();
+                bulkPriority.setSelectedIndex(0);
+                ArrayList<String> ids = new ArrayList<>(selectedTaskIds);
+                runner.submit(() -> taskManager.bulkUpdatePriority(ids, priority),
+                        DashboardFrame.this::applyBulkResult, DashboardFrame.this::applyBulkFailure);
+            }
+        });
+        bar.add(bulkPriority);
+
+        // User names are appended once loadAssignees() completes
+        JComboBox<String> bulkAssignee = UITheme.createStyledComboBox(new String[]{"Assign to...", "Unassigned"});
+        bulkAssignee.setPreferredSize(new Dimension(150, 34));
+        bulkAssignee.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                int idx = bulkAssignee.getSelectedIndex();
+                if (idx <= 0) {
+                    return;
+                }
+                bulkAssignee.setSelectedIndex(0);
+                ArrayList<String> ids = new ArrayList<>(selectedTaskIds);
+                if (idx == 1) {
+                    runner.submit(() -> taskManager.bulkAssign(ids, null, null),
+                            DashboardFrame.this::applyBulkResult, DashboardFrame.this::applyBulkFailure);
+                } else if (idx - 2 < assigneeUsers.size()) {
+                    User user = assigneeUsers.get(idx - 2);
+                    runner.submit(() -> taskManager.bulkAssign(ids, user.getEmail(), user.getFullName()),
+                            DashboardFrame.this::applyBulkResult, DashboardFrame.this::applyBulkFailure);
+                }
+            }
+        });
+        bulkAssigneeCombo = bulkAssignee;
+        bar.add(bulkAssignee);
+
+        JButton bulkDeleteBtn = UITheme.createSecondaryButton("Delete");
+        bulkDeleteBtn.setForeground(UITheme.ERROR);
+        bulkDeleteBtn.setPreferredSize(new Dimension(90, 34));
+        bulkDeleteBtn.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                int confirm = JOptionPane.showConfirmDialog(
+                        DashboardFrame.this,
+                        "Delete " + selectedTaskIds.size() + " selected task(s)?",
+                        "Confirm Delete", JOptionPane.YES_NO_OPTION);
+                if (confirm == JOptionPane.YES_OPTION) {
+                    ArrayList<String> ids = new ArrayList<>(selectedTaskIds);
+                    selectedTaskIds.clear();
+                    runner.submit(() -> taskManager.bulkDelete(ids),
+                            DashboardFrame.this::applyBulkResult, DashboardFrame.this::applyBulkFailure);
+                }
+            }
+        });
+        bar.add(bulkDeleteBtn);
+
+        JButton clearSelectionBtn = UITheme.createLinkButton("Clear selection");
+        clearSelectionBtn.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                selectedTaskIds.clear();
+                refreshTaskList();
+            }
+        });
+        bar.add(clearSelectionBtn);
+
+        bar.setVisible(false);
+        return bar;
+    }
+
+    private void toggleTaskSelection(String taskId) {
+        if (!selectedTaskIds.remove(taskId)) {
+            selectedTaskIds.add(taskId);
+        }
+        updateBulkBar();
+    }
+
+    private void updateBulkBar() {
+        bulkSelectionLabel.setText(selectedTaskIds.size() + " selected");
+        bulkBar.setVisible(!selectedTaskIds.isEmpty());
+        bulkBar.revalidate();
+    }
+
+    private void applyBulkResult(String error) {
+        if (error != null) {
+            UITheme.showError(this, error);
+        }
+        refreshTaskList();
+    }
+
+    private void applyBulkFailure(Exception failure) {
+        applyBulkResult("The bulk change failed: " + failure.getMessage());
     }
 
     // ══════════════════════════════════════════════════════════════════════
@@ -519,7 +747,7 @@ public class DashboardFrame extends JFrame {
         main.add(assignLbl);
         main.add(Box.createRigidArea(new Dimension(0, 4)));
 
-        ArrayList<User> allUsers = userManager.getAllUsers();
+        ArrayList<User> allUsers = assigneeUsers;
         ArrayList<String> assigneeNames = new ArrayList<>();
         ArrayList<String> assigneeEmailsList = new ArrayList<>();
         assigneeNames.add("Unassigned");
@@ -569,16 +797,21 @@ public class DashboardFrame extends JFrame {
                     return;
                 }
 
-                String error = taskManager.createTask(title, desc, priority, dueDate,
+                createBtn.setEnabled(false);
+                runner.submit(() -> taskManager.createTask(title, desc, priority, dueDate,
                         aEmail.isEmpty() ? null : aEmail, aName,
-                        currentUser.getEmail(), currentUser.getFullName());
-
-                if (error != null) {
-                    UITheme.showError(dialog, error);
-                } else {
-                    dialog.dispose();
-                    refreshTaskList();
-                }
+                        currentUser.getEmail(), currentUser.getFullName()), error -> {
+                    createBtn.setEnabled(true);
+                    if (error != null) {
+                        UITheme.showError(dialog, error);
+                    } else {
+                        dialog.dispose();
+                        refreshTaskList();
+                    }
+                }, failure -> {
+                    createBtn.setEnabled(true);
+                    UITheme.showError(dialog, "Could not create the task: " + failure.getMessage());
+                });
             }
         });
         btnPanel.add(createBtn);
@@ -594,7 +827,7 @@ public class DashboardFrame extends JFrame {
     // ══════════════════════════════════════════════════════════════════════
 
     private void openTaskDetail(Task task) {
-        TaskDetailDialog dialog = new TaskDetailDialog(this, task, currentUser, taskManager, userManager);
+        TaskDetailDialog dialog = new TaskDetailDialog(this, task, currentUser, taskManager, userManager, runner);
         dialog.setVisible(true);
 
         if (dialog.wasModified()) {
@@ -607,17 +840,46 @@ public class DashboardFrame extends JFrame {
     // ══════════════════════════════════════════════════════════════════════
 
     private void refreshStats() {
-        totalStatLabel.setText(String.valueOf(taskManager.getTotalCount()));
-        pendingStatLabel.setText(String.valueOf(taskManager.getPendingCount()));
-        completedStatLabel.setText(String.valueOf(
-                taskManager.getCountByStatus(Task.STATUS_DONE)));
-        overdueStatLabel.setText(String.valueOf(taskManager.getOverdueCount()));
-        assignedToMeStatLabel.setText(String.valueOf(
-                taskManager.getAssignedToCount(currentUser.getEmail())));
+        runner.submit("stats", () -> new int[]{
+                taskManager.getTotalCount(),
+                taskManager.getPendingCount(),
+                taskManager.getCountByStatus(Task.STATUS_DONE),
+                taskManager.getOverdueCount(),
+                taskManager.getAssignedToCount(currentUser.getEmail())
+        }, counts -> {
+            totalStatLabel.setText(String.valueOf(counts[0]));
+            pendingStatLabel.setText(String.valueOf(counts[1]));
+            completedStatLabel.setText(String.valueOf(counts[2]));
+            overdueStatLabel.setText(String.valueOf(counts[3]));
+            assignedToMeStatLabel.setText(String.valueOf(counts[4]));
+        });
     }
 
     private void refreshNotificationBadge() {
-        notificationBadgeLabel.setText(String.valueOf(notificationManager.getUnreadCount()));
+        runner.submit("badge", notificationManager::getUnreadCount,
+                count -> notificationBadgeLabel.setText(String.valueOf(count)));
+    }
+
+    /**
+     * Shows the busy label while background work is running, after a short
+     * delay so quick refreshes do not make it flicker.
+     */
+    private void installBusyIndicator() {
+        Timer showTimer = new Timer(BUSY_LABEL_DELAY_MS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                busyLabel.setVisible(runner.isBusy());
+            }
+        });
+        showTimer.setRepeats(false);
+        runner.addBusyListener(busy -> {
+            if (busy) {
+                showTimer.restart();
+            } else {
+                showTimer.stop();
+                busyLabel.setVisible(false);
+            }
+        });
     }
 
     // ══════════════════════════════════════════════════════════════════════
@@ -639,7 +901,7 @@ public class DashboardFrame extends JFrame {
         panel.setOpaque(false);
         panel.setBorder(BorderFactory.createEmptyBorder(14, 14, 14, 14));
 
-        valueLabel.setFont(new Font("Segoe UI", Font.BOLD, 24));
+        valueLabel.setFont(UITheme.font(UITheme.TextStyle.STAT_VALUE));
         valueLabel.setForeground(accentColor);
         valueLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
 
@@ -655,15 +917,31 @@ public class DashboardFrame extends JFrame {
         return panel;
     }
 
+    /**
+     * Creates the assignee filter; user names are appended by loadAssignees().
+     */
     private void buildAssigneeFilter() {
-        ArrayList<User> users = userManager.getAllUsers();
-        ArrayList<String> items = new ArrayList<>();
-        items.add("All");
-        items.add("Unassigned");
-        for (User u : users) {
-            items.add(u.getFullName());
-        }
-        assigneeFilter = UITheme.createStyledComboBox(items.toArray(new String[0]));
+        assigneeFilter = UITheme.createStyledComboBox(new String[]{"All", "Unassigned"});
+    }
+
+    /**
+     * Loads the user list in the background and fills the assignee filter and
+     * bulk assign combo. Appending items keeps the current selection.
+     */
+    private void loadAssignees() {
+        runner.submit("assignees", userManager::getAllUsers, users -> {
+            assigneeUsers = users;
+            while (assigneeFilter.getItemCount() > 2) {
+                assigneeFilter.removeItemAt(assigneeFilter.getItemCount() - 1);
+            }
+            while (bulkAssigneeCombo.getItemCount() > 2) {
+                bulkAssigneeCombo.removeItemAt(bulkAssigneeCombo.getItemCount() - 1);
+            }
+            for (User u : users) {
+                assigneeFilter.addItem(u.getFullName());
+                bulkAssigneeCombo.addItem(u.getFullName());
+            }
+        });
     }
 
     private void selectCurrentUserInAssigneeFilter() {
@@ -675,8 +953,7 @@ public class DashboardFrame extends JFrame {
         }
     }
 
-    private void showNotificationsDialog() {
-        final ArrayList<Notification> notifications = notificationManager.getAllNotificationsNewestFirst();
+    private void showNotificationsDialog(ArrayList<Notification> notifications) {
         JDialog dialog = new JDialog(this, "Notifications", true);
         dialog.setSize(460, 420);
         dialog.setLocationRelativeTo(this);
@@ -708,7 +985,8 @@ public class DashboardFrame extends JFrame {
                 Notification n = (Notification) value;
                 String prefix = n.isRead() ? "   " : "• ";
                 label.setText(prefix + n.getMessage() + "  •  " + n.getFormattedCreatedAt());
-                label.setFont(new Font("Segoe UI", n.isRead() ? Font.PLAIN : Font.BOLD, 12));
+                label.setFont(UITheme.font(n.isRead()
+                        ? UITheme.TextStyle.NOTIFICATION : UITheme.TextStyle.NOTIFICATION_UNREAD));
                 return label;
             }
         });
@@ -727,9 +1005,12 @@ public class DashboardFrame extends JFrame {
                 if ("empty".equals(selected.getEventKey())) {
                     return;
                 }
-                notificationManager.markAsRead(selected.getId());
+                String notificationId = selected.getId();
+                runner.submit(() -> {
+                    notificationManager.markAsRead(notificationId);
+                    return null;
+                }, done -> refreshNotificationBadge());
                 selected.markRead();
-                refreshNotificationBadge();
                 model.setElementAt(selected, idx);
                 list.repaint();
             }
@@ -758,32 +1039,116 @@ public class DashboardFrame extends JFrame {
         dialog.setVisible(true);
     }
 
-    private boolean isDueSoon(Task task) {
-        if (task.getDueDate() == null || Task.STATUS_DONE.equals(task.getStatus())) {
-            return false;
-        }
-        long deltaMs = task.getDueDate().getTime() - System.currentTimeMillis();
-        long days = deltaMs / (24L * 60L * 60L * 1000L);
-        return days >= 0 && days <= 2;
-    }
+    /**
+     * Shows a searchable list of archived (long-completed) tasks with a Restore action.
+     */
+    private void showArchiveDialog() {
+        JDialog dialog = new JDialog(this, "Archived Tasks", true);
+        dialog.setSize(560, 460);
+        dialog.setLocationRelativeTo(this);
 
-    private Color getStatusColor(String status) {
-        if (Task.STATUS_DONE.equals(status)) {
-            return UITheme.SUCCESS;
-        } else if (Task.STATUS_IN_PROGRESS.equals(status)) {
-            return UITheme.WARNING;
-        } else {
-            return UITheme.ACCENT_PRIMARY;
-        }
-    }
+        JPanel main = new JPanel(new BorderLayout(0, 12));
+        main.setBackground(UITheme.BG_DARK);
+        main.setBorder(BorderFactory.createEmptyBorder(16, 16, 16, 16));
 
-    private Color getPriorityColor(String priority) {
-        if (Task.PRIORITY_HIGH.equals(priority)) {
-            return UITheme.ERROR;
-        } else if (Task.PRIORITY_MEDIUM.equals(priority)) {
-            return UITheme.WARNING;
-        } else {
-            return UITheme.SUCCESS;
-        }
+        DefaultListModel<Task> model = new DefaultListModel<>();
+        JList<Task> list = new JList<>(model);
+        list.setBackground(UITheme.BG_INPUT);
+        list.setForeground(UITheme.TEXT_PRIMARY);
+        list.setSelectionBackground(UITheme.ACCENT_PRIMARY);
+        list.setFont(UITheme.FONT_LINK);
+        list.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> listRef, Object value,
+                                                          int index, boolean isSelected, boolean cellHasFocus) {
+                JLabel label = (JLabel) super.getListCellRendererComponent(
+                        listRef, value, index, isSelected, cellHasFocus);
+                Task t = (Task) value;
+                String completed = t.getCompletedDate() == null
+                        ? "Done"
+                        : "Done " + archiveDateFormat.format(t.getCompletedDate());
+                label.setText(t.getTitle() + "  •  " + completed + "  •  "
+                        + (t.isAssigned() ? t.getAssigneeName() : "Unassigned"));
+                return label;
+            }
+        });
+
+        JTextField searchField = UITheme.createStyledTextField(20);
+        Runnable search = new Runnable() {
+            @Override
+            public void run() {
+                String query = searchField.getText();
+                runner.submit("archive-search", () -> taskManager.searchArchivedTasks(query), results -> {
+                    model.clear();
+                    for (Task t : results) {
+                        model.addElement(t);
+                    }
+                });
+            }
+        };
+        searchField.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                search.run();
+            }
+        });
+
+        JPanel searchRow = new JPanel(new BorderLayout(10, 0));
+        searchRow.setOpaque(false);
+        searchRow.add(searchField, BorderLayout.CENTER);
+        JButton searchBtn = UITheme.createSecondaryButton("Search");
+        searchBtn.setPreferredSize(new Dimension(100, 42));
+        searchBtn.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                search.run();
+            }
+        });
+        searchRow.add(searchBtn, BorderLayout.EAST);
+        main.add(searchRow, BorderLayout.NORTH);
+
+        JScrollPane scrollPane = new JScrollPane(list);
+        scrollPane.setBorder(BorderFactory.createLineBorder(UITheme.BORDER_DEFAULT, 1, true));
+        UITheme.styleScrollPane(scrollPane);
+        main.add(scrollPane, BorderLayout.CENTER);
+
+        JButton restore = UITheme.createPrimaryButton("Restore");
+        restore.setPreferredSize(new Dimension(110, 38));
+        restore.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                Task selected = list.getSelectedValue();
+                if (selected == null) {
+                    return;
+                }
+                runner.submit(() -> taskManager.restoreArchivedTask(selected.getId()), error -> {
+                    if (error != null) {
+                        UITheme.showError(dialog, error);
+                        return;
+                    }
+                    model.removeElement(selected);
+                    refreshTaskList();
+                }, failure -> UITheme.showError(dialog, "Could not restore the task: " + failure.getMessage()));
+            }
+        });
+
+        JButton close = UITheme.createSecondaryButton("Close");
+        close.setPreferredSize(new Dimension(100, 38));
+        close.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                dialog.dispose();
+            }
+        });
+
+        JPanel footer = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
+        footer.setOpaque(false);
+        footer.add(close);
+        footer.add(restore);
+        main.add(footer, BorderLayout.SOUTH);
+
+        search.run();
+        dialog.setContentPane(main);
+        dialog.setVisible(true);
     }
 }
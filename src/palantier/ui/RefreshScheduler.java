@@ -0,0 +1,57 @@
+package palantier.ui;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+/**
+ * RefreshScheduler — Coalesces bursts of refresh requests into one refresh per frame.
+ *
+ * request() does not run the refresh; it arms a one-shot Swing timer (if not
+ * already armed) and the refresh runs once when it fires. Everything that
+ * asks for a refresh within that window — for example the three combo boxes
+ * reset by "Clear", plus the button itself — shares a single query and
+ * render pass. The timer is not restarted by later requests, so a steady
+ * stream of events still refreshes at least once per frame.
+ *
+ * All methods are meant to be called on the EDT.
+ */
+public class RefreshScheduler {
+
+    // About one frame at 60 Hz
+    public static final int DEFAULT_DELAY_MS = 16;
+
+    private final Runnable refresh;
+    private final Timer timer;
+
+    public RefreshScheduler(Runnable refresh) {
+        this(refresh, DEFAULT_DELAY_MS);
+    }
+
+    public RefreshScheduler(Runnable refresh, int delayMs) {
+        this.refresh = refresh;
+        this.timer = new Timer(delayMs, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                RefreshScheduler.this.refresh.run();
+            }
+        });
+        timer.setRepeats(false);
+    }
+
+    /**
+     * Asks for a refresh within the next frame.
+     */
+    public void request() {
+        if (!timer.isRunning()) {
+            timer.start();
+        }
+    }
+
+    /**
+     * Drops a pending refresh (used when the window goes away).
+     */
+    public void cancel() {
+        timer.stop();
+    }
+}
@@ -0,0 +1,186 @@
+package palantier.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * RenderCache — Pre-rendered backgrounds for the theme's custom painters.
+ *
+ * Antialiased rounded rectangles and gradients are slow to fill compared to
+ * copying pixels, and the themed components repaint them on every hover,
+ * focus change and list scroll. This cache renders each shape once into a
+ * BufferedImage and then only blits it:
+ *
+ * - paintNinePatch(): for rounded fills and borders whose look does not
+ *   depend on size. A small patch is rendered once per key; painting any
+ *   size draws its four corners as-is and stretches the edges and centre.
+ * - paintSized(): for paint that depends on size (gradients). The key is
+ *   combined with the size, so a resize renders a new image and the old one
+ *   ages out of the cache.
+ *
+ * Images are rendered at the device scale of the target Graphics, so they
+ * stay sharp on HiDPI screens. The cache is an LRU bounded by total pixels
+ * and is cleared when the look-and-feel changes (invalidateAll()).
+ *
+ * Meant to be used from the EDT, like the components that paint with it.
+ */
+public final class RenderCache {
+
+    /**
+     * Paints a shape filling (0, 0, width, height) in the given graphics.
+     */
+    public interface Painter {
+        void paint(Graphics2D g2, int width, int height);
+    }
+
+    // Upper bound on cached pixels (about 16 MB of ARGB)
+    private static final long MAX_PIXELS = 4L * 1024 * 1024;
+
+    private static final LinkedHashMap<String, BufferedImage> images = new LinkedHashMap<>(64, 0.75f, true);
+    private static long cachedPixels;
+
+    static {
+        UIManager.addPropertyChangeListener(event -> {
+            if ("lookAndFeel".equals(event.getPropertyName())) {
+                invalidateAll();
+            }
+        });
+    }
+
+    private RenderCache() {
+    }
+
+    /**
+     * Paints a size-independent rounded shape as a nine-patch.
+     *
+     * @param key    identifies the look (shape, colours, stroke); not the size
+     * @param corner logical size of the corner regions that must not be
+     *               stretched (at least half the arc plus the stroke width)
+     */
+    public static void paintNinePatch(Graphics g, String key, int x, int y, int width, int height,
+                                      int corner, Painter painter) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        Graphics2D g2 = (Graphics2D) g;
+        if (width < 2 * corner + 1 || height < 2 * corner + 1) {
+            paintDirect(g2, x, y, width, height, painter);
+            return;
+        }
+
+        double scale = deviceScale(g2);
+        int cornerPx = (int) Math.ceil(corner * scale);
+        String cacheKey = key + "|9|" + corner + "|" + scale;
+        BufferedImage patch = images.get(cacheKey);
+        if (patch == null) {
+            // Scale so the corner regions come out exactly cornerPx wide
+            double patchScale = (double) cornerPx / corner;
+            int logical = 2 * corner + 1;
+            int size = (int) Math.ceil(logical * patchScale);
+            patch = render(size, size, patchScale, logical, logical, painter);
+            store(cacheKey, patch);
+        }
+
+        int size = patch.getWidth();
+        int[] dx = {x, x + corner, x + width - corner, x + width};
+        int[] dy = {y, y + corner, y + height - corner, y + height};
+        int[] sx = {0, cornerPx, size - cornerPx, size};
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                g2.drawImage(patch,
+                        dx[col], dy[row], dx[col + 1], dy[row + 1],
+                        sx[col], sx[row], sx[col + 1], sx[row + 1], null);
+            }
+        }
+    }
+
+    /**
+     * Paints a size-dependent image (e.g. a gradient), rendering it once per size.
+     */
+    public static void paintSized(Graphics g, String key, int x, int y, int width, int height, Painter painter) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        Graphics2D g2 = (Graphics2D) g;
+        double scale = deviceScale(g2);
+        String cacheKey = key + "|" + width + "x" + height + "|" + scale;
+        BufferedImage image = images.get(cacheKey);
+        if (image == null) {
+            int widthPx = (int) Math.ceil(width * scale);
+            int heightPx = (int) Math.ceil(height * scale);
+            image = render(widthPx, heightPx, scale, width, height, painter);
+            store(cacheKey, image);
+        }
+        g2.drawImage(image, x, y, width, height, null);
+    }
+
+    /**
+     * Drops every cached image (theme change, or anything else that changes the look).
+     */
+    public static void invalidateAll() {
+        images.clear();
+        cachedPixels = 0;
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ══════════════════════════════════════════════════════════════════════
+
+    private static BufferedImage render(int widthPx, int heightPx, double scale, int width, int height,
+                                        Painter painter) {
+        BufferedImage image = createImage(widthPx, heightPx);
+        Graphics2D g2 = image.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2.scale(scale, scale);
+        painter.paint(g2, width, height);
+        g2.dispose();
+        return image;
+    }
+
+    private static BufferedImage createImage(int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return config.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    private static void paintDirect(Graphics2D g, int x, int y, int width, int height, Painter painter) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.translate(x, y);
+        painter.paint(g2, width, height);
+        g2.dispose();
+    }
+
+    private static double deviceScale(Graphics2D g2) {
+        AffineTransform transform = g2.getTransform();
+        return Math.max(1.0, Math.max(Math.abs(transform.getScaleX()), Math.abs(transform.getScaleY())));
+    }
+
+    private static void store(String key, BufferedImage image) {
+        long pixels = (long) image.getWidth() * image.getHeight();
+        BufferedImage previous = images.put(key, image);
+        cachedPixels += pixels;
+        if (previous != null) {
+            cachedPixels -= (long) previous.getWidth() * previous.getHeight();
+        }
+        // Evict least recently used images, but never the one just added
+        Iterator<Map.Entry<String, BufferedImage>> it = images.entrySet().iterator();
+        while (cachedPixels > MAX_PIXELS && it.hasNext()) {
+            Map.Entry<String, BufferedImage> eldest = it.next();
+            if (eldest.getKey().equals(key)) {
+                break;
+            }
+            cachedPixels -= (long) eldest.getValue().getWidth() * eldest.getValue().getHeight();
+            it.remove();
+        }
+    }
+}
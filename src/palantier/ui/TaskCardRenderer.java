@@ -0,0 +1,218 @@
+package palantier.ui;
+
+import palantier.model.Task;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.RoundRectangle2D;
+import java.util.Set;
+
+/**
+ * TaskCardRenderer — Stamp-style cell renderer that paints a task card.
+ *
+ * One instance paints every visible row of the task list, so the cost of a
+ * refresh no longer grows with the number of tasks. The look matches the
+ * old per-task card panels: rounded background, status accent bar, title,
+ * meta line, and status / priority / due badges on the right. Everything is
+ * drawn directly in paintComponent; there are no child components to lay out.
+ * The rounded card, outline and badge shapes come from the RenderCache, so a
+ * row paint is mostly image blits plus the text.
+ */
+public class TaskCardRenderer extends JComponent implements ListCellRenderer<Task> {
+
+    // Painted card height plus the gap below it (the gap shows the list background)
+    public static final int CARD_HEIGHT = 76;
+    public static final int CARD_GAP = 8;
+    public static final int ROW_HEIGHT = CARD_HEIGHT + CARD_GAP;
+
+    private static final int PAD_X = 18;
+    private static final int BADGE_PAD_X = 10;
+    private static final int BADGE_HEIGHT = 22;
+    private static final int BADGE_GAP = 8;
+
+    // Unstretched corner size of the cached card and badge nine-patches
+    private static final int CARD_CORNER = 9;
+    private static final int BADGE_CORNER = 8;
+
+    private static final Color OVERDUE_BG = new Color(52, 24, 34);
+    private static final Font BADGE_FONT = UITheme.font(UITheme.TextStyle.BADGE);
+    private static final Font TITLE_FONT = UITheme.font(UITheme.TextStyle.LABEL);
+    private static final Font META_FONT = UITheme.font(UITheme.TextStyle.LINK);
+    private static final FontMetrics BADGE_METRICS = UITheme.metrics(UITheme.TextStyle.BADGE);
+    private static final FontMetrics TITLE_METRICS = UITheme.metrics(UITheme.TextStyle.LABEL);
+    private static final FontMetrics META_METRICS = UITheme.metrics(UITheme.TextStyle.LINK);
+
+    private static final RenderCache.Painter SELECTION_PAINTER = (g2, width, height) -> {
+        g2.setColor(UITheme.ACCENT_HOVER);
+        g2.setStroke(new BasicStroke(2f));
+        g2.draw(new RoundRectangle2D.Float(1, 1, width - 2, height - 2, 14, 14));
+    };
+
+    private final Set<String> selectedIds;
+
+    // Row under the mouse, or -1
+    private int hoverIndex = -1;
+
+    // State of the row currently being stamped
+    private Task task;
+    private boolean hovering;
+    private boolean selected;
+
+    /**
+     * @param selectedIds ids of the tasks picked for bulk actions (read on every paint)
+     */
+    public TaskCardRenderer(Set<String> selectedIds) {
+        this.selectedIds = selectedIds;
+        setOpaque(false);
+    }
+
+    public void setHoverIndex(int hoverIndex) {
+        this.hoverIndex = hoverIndex;
+    }
+
+    public int getHoverIndex() {
+        return hoverIndex;
+    }
+
+    @Override
+    public Component getListCellRendererComponent(JList<? extends Task> list, Task value, int index,
+                                                  boolean isSelected, boolean cellHasFocus) {
+        // Bulk selection is tracked by id in selectedIds, not by the list's own selection
+        this.task = value;
+        this.hovering = index == hoverIndex;
+        this.selected = value != null && selectedIds.contains(value.getId());
+        return this;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (task == null) {
+            return;
+        }
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        int width = getWidth();
+        int height = Math.min(CARD_HEIGHT, getHeight());
+
+        // Card background with the status accent bar (cached nine-patch)
+        Color baseColor = task.isOverdue() ? OVERDUE_BG : UITheme.BG_CARD;
+        Color cardColor = hovering ? UITheme.BG_INPUT_FOCUS : baseColor;
+        Color accentColor = getStatusColor(task.getStatus());
+        RenderCache.paintNinePatch(g2, "task-card:" + cardColor.getRGB() + ":" + accentColor.getRGB(),
+                0, 0, width, height, CARD_CORNER, (patch, w, h) -> {
+                    patch.setColor(cardColor);
+                    patch.fill(new RoundRectangle2D.Float(0, 0, w, h, 14, 14));
+                    patch.setColor(accentColor);
+                    patch.fill(new RoundRectangle2D.Float(0, 0, 4, h, 4, 4));
+                });
+
+        // Selection outline for bulk actions
+        if (selected) {
+            RenderCache.paintNinePatch(g2, "task-card-selection", 0, 0, width, height, CARD_CORNER,
+                    SELECTION_PAINTER);
+        }
+
+        // Badges, right to left
+        int badgeRight = width - PAD_X;
+        int badgeY = (height - BADGE_HEIGHT) / 2;
+        if (task.isOverdue()) {
+            badgeRight = paintBadge(g2, "Overdue", UITheme.ERROR, badgeRight, badgeY);
+        } else if (isDueSoon(task)) {
+            badgeRight = paintBadge(g2, "Due Soon", UITheme.WARNING, badgeRight, badgeY);
+        }
+        badgeRight = paintBadge(g2, task.getPriority(), getPriorityColor(task.getPriority()), badgeRight, badgeY);
+        badgeRight = paintBadge(g2, task.getStatus(), getStatusColor(task.getStatus()), badgeRight, badgeY);
+        int textWidth = badgeRight - 12 - PAD_X;
+
+        // Title + meta line, vertically centred as a block
+        FontMetrics titleMetrics = TITLE_METRICS;
+        FontMetrics metaMetrics = META_METRICS;
+        int blockHeight = titleMetrics.getHeight() + 4 + metaMetrics.getHeight();
+        int y = (height - blockHeight) / 2;
+
+        g2.setFont(TITLE_FONT);
+        g2.setColor(UITheme.TEXT_PRIMARY);
+        g2.drawString(ellipsize(task.getTitle(), titleMetrics, textWidth), PAD_X, y + titleMetrics.getAscent());
+
+        y += titleMetrics.getHeight() + 4;
+        String assigneeText = task.isAssigned() ? task.getAssigneeName() : "Unassigned";
+        String meta = assigneeText + "  •  " + task.getFormattedCreatedDate()
+                + "  •  " + task.getCommentCount() + " comment" + (task.getCommentCount() != 1 ? "s" : "");
+        g2.setFont(META_FONT);
+        g2.setColor(UITheme.TEXT_MUTED);
+        g2.drawString(ellipsize(meta, metaMetrics, textWidth), PAD_X, y + metaMetrics.getAscent());
+
+        g2.dispose();
+    }
+
+    /**
+     * Paints one pill badge ending at {@code right} and returns the x where the next one should end.
+     */
+    private int paintBadge(Graphics2D g2, String text, Color color, int right, int y) {
+        if (text == null) {
+            return right;
+        }
+        FontMetrics metrics = BADGE_METRICS;
+        int badgeWidth = metrics.stringWidth(text) + 2 * BADGE_PAD_X;
+        int x = right - badgeWidth;
+        RenderCache.paintNinePatch(g2, "badge:" + color.getRGB(), x, y, badgeWidth, BADGE_HEIGHT, BADGE_CORNER,
+                (patch, w, h) -> {
+                    patch.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 30));
+                    patch.fill(new RoundRectangle2D.Float(0, 0, w, h, 14, 14));
+                });
+        g2.setFont(BADGE_FONT);
+        g2.setColor(color);
+        g2.drawString(text, x + BADGE_PAD_X, y + (BADGE_HEIGHT - metrics.getHeight()) / 2 + metrics.getAscent());
+        return x - BADGE_GAP;
+    }
+
+    private static String ellipsize(String text, FontMetrics metrics, int maxWidth) {
+        if (text == null) {
+            return "";
+        }
+        if (metrics.stringWidth(text) <= maxWidth) {
+            return text;
+        }
+        int ellipsisWidth = metrics.stringWidth("...");
+        int end = text.length();
+        while (end > 0 && metrics.stringWidth(text.substring(0, end)) + ellipsisWidth > maxWidth) {
+            end--;
+        }
+        return text.substring(0, end) + "...";
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ══════════════════════════════════════════════════════════════════════
+
+    static boolean isDueSoon(Task task) {
+        if (task.getDueDate() == null || Task.STATUS_DONE.equals(task.getStatus())) {
+            return false;
+        }
+        long deltaMs = task.getDueDate().getTime() - System.currentTimeMillis();
+        long days = deltaMs / (24L * 60L * 60L * 1000L);
+        return days >= 0 && days <= 2;
+    }
+
+    static Color getStatusColor(String status) {
+        if (Task.STATUS_DONE.equals(status)) {
+            return UITheme.SUCCESS;
+        } else if (Task.STATUS_IN_PROGRESS.equals(status)) {
+            return UITheme.WARNING;
+        } else {
+            return UITheme.ACCENT_PRIMARY;
+        }
+    }
+
+    static Color getPriorityColor(String priority) {
+        if (Task.PRIORITY_HIGH.equals(priority)) {
+            return UITheme.ERROR;
+        } else if (Task.PRIORITY_MEDIUM.equals(priority)) {
+            return UITheme.WARNING;
+        } else {
+            return UITheme.SUCCESS;
+        }
+    }
+}
@@ -10,41 +10,72 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.AdjustmentEvent;
+import java.awt.event.AdjustmentListener;
 import java.awt.geom.RoundRectangle2D;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 /**
  * TaskDetailDialog — Modal dialog for viewing / editing a single task.
  *
  * Shows task info, allows status/assignee changes, displays comments,
  * and provides a comment input area.
+ *
+ * Writes and the comment query run on the dashboard's BackgroundRunner;
+ * while a write is in flight the editing controls are disabled.
+ *
+ * The comment thread opens on the newest COMMENT_PAGE_SIZE comments; older
+ * pages load when the user scrolls up to the top of the thread (or clicks
+ * "Load older comments"), so large threads do not slow down opening.
  */
 public class TaskDetailDialog extends JDialog {
 
+    // Comments loaded per page (newest page first)
+    private static final int COMMENT_PAGE_SIZE = 20;
+
     private Task task;
     private User currentUser;
     private TaskManager taskManager;
     private UserManager userManager;
+    private BackgroundRunner runner;
     private boolean taskModified;
 
     // UI references we need to refresh
+    private JScrollPane contentScroll;
+    private JLabel commentsHeader;
     private JPanel commentsListPanel;
+    private JButton olderCommentsBtn;
     private JTextArea commentInput;
     private JComboBox<String> statusCombo;
     private JComboBox<String> assigneeCombo;
     private JTextField dueDateField;
+    private JButton addCommentBtn;
+    private JButton deleteBtn;
+
+    // Due date field format; used on the EDT only
+    private final SimpleDateFormat dueDateFormat = new SimpleDateFormat("yyyy-MM-dd");
 
     // Assignee email list (parallel to combo box entries)
     private ArrayList<String> assigneeEmails;
 
+    // Comment paging: index of the oldest loaded comment, and how many are shown
+    private int oldestLoadedComment;
+    private int loadedCommentCount;
+    private boolean loadingOlderComments;
+    private int lastScrollValue;
+
     public TaskDetailDialog(JFrame parent, Task task, User currentUser,
-                            TaskManager taskManager, UserManager userManager) {
+                            TaskManager taskManager, UserManager userManager, BackgroundRunner runner) {
         super(parent, "Task Details", true);
         this.task = task;
         this.currentUser = currentUser;
         this.taskManager = taskManager;
         this.userManager = userManager;
+        this.runner = runner;
         this.taskModified = false;
 
         initializeUI();
@@ -121,9 +152,15 @@ public class TaskDetailDialog extends JDialog {
             public void actionPerformed(ActionEvent e) {
                 String newStatus = (String) statusCombo.getSelectedItem();
                 if (newStatus != null && !newStatus.equals(task.getStatus())) {
-                    task.setStatus(newStatus);
-                    taskManager.updateTask();
-                    taskModified = true;
+                    String taskId = task.getId();
+                    runWrite(() -> taskManager.updateStatus(taskId, newStatus), error -> {
+                        if (error != null) {
+                            UITheme.showError(TaskDetailDialog.this, error);
+                            statusCombo.setSelectedItem(task.getStatus());
+                            return;
+                        }
+                        taskModified = true;
+                    });
                 }
             }
         });
@@ -149,16 +186,22 @@ public class TaskDetailDialog extends JDialog {
                 if (idx >= 0 && idx < assigneeEmails.size()) {
                     String email = assigneeEmails.get(idx);
                     String name = (String) assigneeCombo.getSelectedItem();
-                    String error = taskManager.assignTask(
-                            task.getId(),
-                            email.isEmpty() ? null : email,
-                            email.isEmpty() ? null : name);
-                    if (error != null) {
-                        UITheme.showError(TaskDetailDialog.this, error);
-                        buildAssigneeCombo();
+                    String current = task.isAssigned() ? task.getAssigneeEmail() : "";
+                    if (email.equalsIgnoreCase(current)) {
                         return;
                     }
-                    taskModified = true;
+                    String taskId = task.getId();
+                    runWrite(() -> taskManager.assignTask(
+                            taskId,
+                            email.isEmpty() ? null : email,
+                            email.isEmpty() ? null : name), error -> {
+                        if (error != null) {
+                            UITheme.showError(TaskDetailDialog.this, error);
+                            selectCurrentAssignee();
+                            return;
+                        }
+                        taskModified = true;
+                    });
                 }
             }
         });
@@ -169,7 +212,7 @@ public class TaskDetailDialog extends JDialog {
         dueDateField = UITheme.createStyledTextField(10);
         dueDateField.setText(task.getDueDate() == null
                 ? ""
-                : new java.text.SimpleDateFormat("yyyy-MM-dd").format(task.getDueDate()));
+                : dueDateFormat.format(task.getDueDate()));
         dueDateField.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -192,7 +235,7 @@ public class TaskDetailDialog extends JDialog {
         content.add(Box.createRigidArea(new Dimension(0, 16)));
 
         // ── Comments header ──────────────────────────────────────────────
-        JLabel commentsHeader = new JLabel("Comments (" + task.getCommentCount() + ")");
+        commentsHeader = new JLabel("Comments (" + task.getCommentCount() + ")");
         commentsHeader.setFont(UITheme.FONT_LABEL);
         commentsHeader.setForeground(UITheme.TEXT_PRIMARY);
         commentsHeader.setAlignmentX(Component.LEFT_ALIGNMENT);
@@ -204,6 +247,14 @@ public class TaskDetailDialog extends JDialog {
         commentsListPanel.setLayout(new BoxLayout(commentsListPanel, BoxLayout.Y_AXIS));
         commentsListPanel.setBackground(UITheme.BG_DARK);
         commentsListPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        olderCommentsBtn = UITheme.createLinkButton("Load older comments");
+        olderCommentsBtn.setAlignmentX(Component.LEFT_ALIGNMENT);
+        olderCommentsBtn.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                loadOlderComments();
+            }
+        });
         refreshComments();
         content.add(commentsListPanel);
         content.add(Box.createRigidArea(new Dimension(0, 16)));
@@ -228,7 +279,7 @@ public class TaskDetailDialog extends JDialog {
         content.add(inputScroll);
         content.add(Box.createRigidArea(new Dimension(0, 10)));
 
-        JButton addCommentBtn = UITheme.createPrimaryButton("Add Comment");
+        addCommentBtn = UITheme.createPrimaryButton("Add Comment");
         addCommentBtn.setAlignmentX(Component.LEFT_ALIGNMENT);
         addCommentBtn.setMaximumSize(new Dimension(160, 40));
         addCommentBtn.addActionListener(new ActionListener() {
@@ -240,19 +291,30 @@ public class TaskDetailDialog extends JDialog {
         content.add(addCommentBtn);
 
         // ── Wrap in scroll pane ──────────────────────────────────────────
-        JScrollPane scroll = new JScrollPane(content);
-        scroll.setBorder(null);
-        scroll.getVerticalScrollBar().setUnitIncrement(16);
-        scroll.setBackground(UITheme.BG_DARK);
-        scroll.getViewport().setBackground(UITheme.BG_DARK);
-        main.add(scroll, BorderLayout.CENTER);
+        contentScroll = new JScrollPane(content);
+        contentScroll.setBorder(null);
+        contentScroll.getVerticalScrollBar().setUnitIncrement(16);
+        contentScroll.setBackground(UITheme.BG_DARK);
+        contentScroll.getViewport().setBackground(UITheme.BG_DARK);
+        // Scrolling up until the top of the thread is visible loads the previous page
+        contentScroll.getVerticalScrollBar().addAdjustmentListener(new AdjustmentListener() {
+            @Override
+            public void adjustmentValueChanged(AdjustmentEvent e) {
+                boolean scrolledUp = e.getValue() < lastScrollValue;
+                lastScrollValue = e.getValue();
+                if (scrolledUp && olderCommentsBtn.isShowing() && !olderCommentsBtn.getVisibleRect().isEmpty()) {
+                    loadOlderComments();
+                }
+            }
+        });
+        main.add(contentScroll, BorderLayout.CENTER);
 
         // ── Bottom bar with Delete + Close ───────────────────────────────
         JPanel bottomBar = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 10));
         bottomBar.setBackground(UITheme.BG_CARD);
         bottomBar.setBorder(BorderFactory.createMatteBorder(1, 0, 0, 0, UITheme.BORDER_DEFAULT));
 
-        JButton deleteBtn = UITheme.createSecondaryButton("Delete Task");
+        deleteBtn = UITheme.createSecondaryButton("Delete Task");
         deleteBtn.setForeground(UITheme.ERROR);
         deleteBtn.setPreferredSize(new Dimension(130, 36));
         deleteBtn.addActionListener(new ActionListener() {
@@ -263,9 +325,15 @@ public class TaskDetailDialog extends JDialog {
                         "Are you sure you want to delete this task?",
                         "Confirm Delete", JOptionPane.YES_NO_OPTION);
                 if (confirm == JOptionPane.YES_OPTION) {
-                    taskManager.deleteTask(task.getId());
-                    taskModified = true;
-                    dispose();
+                    String taskId = task.getId();
+                    setEditingEnabled(false);
+                    runner.submit(() -> taskManager.deleteTask(taskId), deleted -> {
+                        taskModified = true;
+                        dispose();
+                    }, failure -> {
+                        setEditingEnabled(true);
+                        UITheme.showError(TaskDetailDialog.this, "Could not delete the task: " + failure.getMessage());
+                    });
                 }
             }
         });
@@ -290,26 +358,55 @@ public class TaskDetailDialog extends JDialog {
 
     private void handleAddComment() {
         String text = commentInput.getText();
-        String error = taskManager.addComment(
-                task.getId(),
+        String taskId = task.getId();
+        runWrite(() -> taskManager.addComment(
+                taskId,
                 currentUser.getFullName(),
                 currentUser.getEmail(),
-                text);
+                text), error -> {
+            if (error != null) {
+                UITheme.showError(this, error);
+            } else {
+                commentInput.setText("");
+                taskModified = true;
+                refreshComments();
+            }
+        });
+    }
 
-        if (error != null) {
-            UITheme.showError(this, error);
-        } else {
-            commentInput.setText("");
-            taskModified = true;
-            refreshComments();
+    /**
+     * Reloads the newest comments, keeping at least as many as are shown now
+     * (plus one for a comment just posted).
+     */
+    private void refreshComments() {
+        String taskId = task.getId();
+        int limit = Math.max(COMMENT_PAGE_SIZE, loadedCommentCount + 1);
+        runner.submit("comments-" + taskId,
+                () -> taskManager.getCommentsPage(taskId, Integer.MAX_VALUE, limit), this::showComments);
+    }
+
+    private void loadOlderComments() {
+        if (loadingOlderComments || oldestLoadedComment == 0) {
+            return;
         }
+        loadingOlderComments = true;
+        String taskId = task.getId();
+        int end = oldestLoadedComment;
+        runner.submit("older-comments-" + taskId,
+                () -> taskManager.getCommentsPage(taskId, end, COMMENT_PAGE_SIZE), this::prependComments);
     }
 
-    private void refreshComments() {
+    private void showComments(TaskManager.CommentPage page) {
+        ArrayList<Comment> comments = page.comments;
         commentsListPanel.removeAll();
+        commentsHeader.setText("Comments (" + page.total + ")");
+        oldestLoadedComment = page.start;
+        loadedCommentCount = comments.size();
+        loadingOlderComments = false;
 
-        ArrayList<Comment> comments = taskManager.getCommentsChronological(task.getId());
-
+        if (page.hasOlder()) {
+            commentsListPanel.add(olderCommentsBtn);
+        }
         if (comments.isEmpty()) {
             JLabel empty = new JLabel("No comments yet. Be the first to comment!");
             empty.setFont(UITheme.FONT_LINK);
@@ -327,6 +424,37 @@ public class TaskDetailDialog extends JDialog {
         commentsListPanel.repaint();
     }
 
+    /**
+     * Inserts an older page above the loaded comments without moving what
+     * the user is looking at.
+     */
+    private void prependComments(TaskManager.CommentPage page) {
+        loadingOlderComments = false;
+        if (page.start >= oldestLoadedComment) {
+            return;     // the thread was reloaded in the meantime
+        }
+        int heightBefore = commentsListPanel.getPreferredSize().height;
+
+        commentsListPanel.remove(olderCommentsBtn);
+        int index = 0;
+        if (page.hasOlder()) {
+            commentsListPanel.add(olderCommentsBtn, index++);
+        }
+        for (Comment comment : page.comments) {
+            commentsListPanel.add(createCommentCard(comment), index++);
+            commentsListPanel.add(Box.createRigidArea(new Dimension(0, 8)), index++);
+        }
+        oldestLoadedComment = page.start;
+        loadedCommentCount += page.comments.size();
+
+        int added = commentsListPanel.getPreferredSize().height - heightBefore;
+        contentScroll.validate();
+        JScrollBar bar = contentScroll.getVerticalScrollBar();
+        lastScrollValue = bar.getValue() + added;
+        bar.setValue(lastScrollValue);
+        commentsListPanel.repaint();
+    }
+
     private JPanel createCommentCard(Comment comment) {
         JPanel card = new JPanel() {
             @Override
@@ -354,7 +482,7 @@ public class TaskDetailDialog extends JDialog {
         header.add(authorLabel, BorderLayout.WEST);
 
         JLabel timeLabel = new JLabel(comment.getFormattedTimestamp());
-        timeLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        timeLabel.setFont(UITheme.font(UITheme.TextStyle.CAPTION));
         timeLabel.setForeground(UITheme.TEXT_MUTED);
         header.add(timeLabel, BorderLayout.EAST);
 
@@ -374,6 +502,54 @@ public class TaskDetailDialog extends JDialog {
     // HELPER METHODS
     // ══════════════════════════════════════════════════════════════════════
 
+    /**
+     * Runs a task write in the background with the editing controls disabled,
+     * then re-reads the task (a merge with another client's change may have
+     * replaced the in-memory instance) and hands the error, or null, to onDone.
+     * A write that throws re-enables the controls and is reported as an error.
+     */
+    private void runWrite(Callable<String> write, Consumer<String> onDone) {
+        String taskId = task.getId();
+        setEditingEnabled(false);
+        runner.submit(() -> {
+            String error = write.call();
+            return new WriteOutcome(error, taskManager.findTaskById(taskId));
+        }, outcome -> {
+            setEditingEnabled(true);
+            if (outcome.latest != null) {
+                task = outcome.latest;
+            } else {
+                taskModified = true;
+            }
+            onDone.accept(outcome.error);
+        }, failure -> {
+            setEditingEnabled(true);
+            onDone.accept("Could not save the change: " + failure.getMessage());
+        });
+    }
+
+    /**
+     * Result of a background write: the error (null on success) and the task as stored afterwards.
+     */
+    private static final class WriteOutcome {
+        final String error;
+        final Task latest;
+
+        WriteOutcome(String error, Task latest) {
+            this.error = error;
+            this.latest = latest;
+        }
+    }
+
+    private void setEditingEnabled(boolean enabled) {
+        statusCombo.setEnabled(enabled);
+        assigneeCombo.setEnabled(enabled);
+        dueDateField.setEnabled(enabled);
+        addCommentBtn.setEnabled(enabled);
+        deleteBtn.setEnabled(enabled);
+        setCursor(enabled ? Cursor.getDefaultCursor() : Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+    }
+
     private JPanel createFieldPanel(String label) {
         JPanel panel = new JPanel();
         panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
@@ -404,8 +580,10 @@ public class TaskDetailDialog extends JDialog {
 
         String[] items = names.toArray(new String[0]);
         assigneeCombo = UITheme.createStyledComboBox(items);
+        selectCurrentAssignee();
+    }
 
-        // Select current assignee
+    private void selectCurrentAssignee() {
         if (task.isAssigned()) {
             int idx = assigneeEmails.indexOf(task.getAssigneeEmail());
             if (idx >= 0) {
@@ -433,12 +611,17 @@ public class TaskDetailDialog extends JDialog {
             UITheme.showError(this, "Invalid due date format. Use YYYY-MM-DD.");
             dueDateField.setText(task.getDueDate() == null
                     ? ""
-                    : new java.text.SimpleDateFormat("yyyy-MM-dd").format(task.getDueDate()));
+                    : dueDateFormat.format(task.getDueDate()));
             return;
         }
 
-        task.setDueDate(parsedDate);
-        taskManager.updateTask();
-        taskModified = true;
+        String taskId = task.getId();
+        runWrite(() -> taskManager.updateDueDate(taskId, parsedDate), error -> {
+            if (error != null) {
+                UITheme.showError(this, error);
+                return;
+            }
+            taskModified = true;
+        });
     }
 }
@@ -0,0 +1,196 @@
+package palantier.ui;
+
+import palantier.model.Task;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * TaskListModel — List model behind the dashboard's virtualized task list.
+ *
+ * setTasks() diffs the new result against the current rows by task id and
+ * fires only the resulting removals, moves (a remove plus an insert),
+ * insertions and content changes. Changing one task's status therefore
+ * repaints a single row, and the scroll position and list selection
+ * stay where they were. A row counts as changed when its task's version
+ * differs from the version it was last shown with.
+ *
+ * When the change is large (for example switching to a very different
+ * filter) a single full replacement is cheaper than thousands of
+ * single-row edits, so the model falls back to that.
+ */
+public class TaskListModel extends AbstractListModel<Task> {
+
+    // Above this many row edits a full replacement is used instead
+    private static final int MAX_INCREMENTAL_EDITS = 1000;
+
+    private ArrayList<Row> rows = new ArrayList<>();
+
+    /**
+     * A displayed task plus the version it was displayed with (tasks are
+     * mutated in place, so the version has to be captured separately).
+     */
+    private static final class Row {
+        final String id;
+        Task task;
+        long version;
+
+        Row(Task task) {
+            this.id = task.getId();
+            this.task = task;
+            this.version = task.getVersion();
+        }
+    }
+
+    /**
+     * Updates the list to the given tasks with as few row events as possible.
+     */
+    public void setTasks(List<Task> newTasks) {
+        HashMap<String, Integer> newIndex = new HashMap<>(newTasks.size() * 2);
+        for (int i = 0; i < newTasks.size(); i++) {
+            newIndex.put(newTasks.get(i).getId(), i);
+        }
+        if (rows.isEmpty() || newTasks.isEmpty() || estimateEdits(newIndex, newTasks.size()) > MAX_INCREMENTAL_EDITS) {
+            replaceAll(newTasks);
+            return;
+        }
+
+        // 1. Removals, back to front so earlier indices stay valid
+        int end = rows.size() - 1;
+        while (end >= 0) {
+            if (newIndex.containsKey(rows.get(end).id)) {
+                end--;
+                continue;
+            }
+            int start = end;
+            while (start > 0 && !newIndex.containsKey(rows.get(start - 1).id)) {
+                start--;
+            }
+            rows.subList(start, end + 1).clear();
+            fireIntervalRemoved(this, start, end);
+            end = start - 1;
+        }
+
+        // 2. Moves: keep the longest run already in new order, take the rest out
+        boolean[] keep = longestIncreasingRun(rows, newIndex);
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            if (!keep[i]) {
+                rows.remove(i);
+                fireIntervalRemoved(this, i, i);
+            }
+        }
+
+        // 3. Insertions (new tasks and moved ones); the remaining rows are now
+        //    a subsequence of the new list in the same order
+        int k = 0;
+        while (k < newTasks.size()) {
+            if (k < rows.size() && rows.get(k).id.equals(newTasks.get(k).getId())) {
+                k++;
+                continue;
+            }
+            int start = k;
+            while (k < newTasks.size() && (k >= rows.size() || !rows.get(k).id.equals(newTasks.get(k).getId()))) {
+                rows.add(k, new Row(newTasks.get(k)));
+                k++;
+            }
+            fireIntervalAdded(this, start, k - 1);
+        }
+
+        // 4. Content changes for rows whose task was edited
+        int changedStart = -1;
+        for (int i = 0; i <= rows.size(); i++) {
+            boolean changed = false;
+            if (i < rows.size()) {
+                Row row = rows.get(i);
+                Task task = newTasks.get(i);
+                changed = row.task != task || row.version != task.getVersion();
+                row.task = task;
+                row.version = task.getVersion();
+            }
+            if (changed && changedStart < 0) {
+                changedStart = i;
+            } else if (!changed && changedStart >= 0) {
+                fireContentsChanged(this, changedStart, i - 1);
+                changedStart = -1;
+            }
+        }
+    }
+
+    /**
+     * Row edits a diff would fire for removals and insertions (moves come on top).
+     */
+    private int estimateEdits(HashMap<String, Integer> newIndex, int newSize) {
+        int kept = 0;
+        for (Row row : rows) {
+            if (newIndex.containsKey(row.id)) {
+                kept++;
+            }
+        }
+        return (rows.size() - kept) + (newSize - kept);
+    }
+
+    private void replaceAll(List<Task> newTasks) {
+        int oldSize = rows.size();
+        ArrayList<Row> replaced = new ArrayList<>(newTasks.size());
+        for (Task task : newTasks) {
+            replaced.add(new Row(task));
+        }
+        rows = new ArrayList<>();
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        rows = replaced;
+        if (!rows.isEmpty()) {
+            fireIntervalAdded(this, 0, rows.size() - 1);
+        }
+    }
+
+    /**
+     * Marks the rows forming a longest increasing subsequence of their new
+     * positions (O(n log n)); every other row has moved.
+     */
+    private static boolean[] longestIncreasingRun(List<Row> rows, HashMap<String, Integer> newIndex) {
+        int n = rows.size();
+        int[] positions = new int[n];
+        for (int i = 0; i < n; i++) {
+            positions[i] = newIndex.get(rows.get(i).id);
+        }
+        int[] tails = new int[n];       // index into positions of the smallest tail for each length
+        int[] previous = new int[n];
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            int lo = 0;
+            int hi = length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (positions[tails[mid]] < positions[i]) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            previous[i] = lo > 0 ? tails[lo - 1] : -1;
+            tails[lo] = i;
+            if (lo == length) {
+                length++;
+            }
+        }
+        boolean[] keep = new boolean[n];
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+            keep[i] = true;
+        }
+        return keep;
+    }
+
+    @Override
+    public int getSize() {
+        return rows.size();
+    }
+
+    @Override
+    public Task getElementAt(int index) {
+        return rows.get(index).task;
+    }
+}
@@ -9,6 +9,11 @@ import java.awt.event.FocusEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * UITheme — Centralized design system for the Palantier application.
@@ -48,18 +53,156 @@ public class UITheme {
     public static final Color BORDER_DEFAULT = new Color(51, 51, 77);
     public static final Color BORDER_FOCUS = ACCENT_PRIMARY;
 
+    // Translucent accent wash behind hovered secondary buttons
+    public static final Color ACCENT_TINT = new Color(ACCENT_PRIMARY.getRed(), ACCENT_PRIMARY.getGreen(),
+            ACCENT_PRIMARY.getBlue(), 30);
+
     // ══════════════════════════════════════════════════════════════════════
     // FONTS
     // ══════════════════════════════════════════════════════════════════════
 
-    public static final Font FONT_TITLE = new Font("Segoe UI", Font.BOLD, 28);
-    public static final Font FONT_SUBTITLE = new Font("Segoe UI", Font.PLAIN, 14);
-    public static final Font FONT_LABEL = new Font("Segoe UI", Font.BOLD, 13);
-    public static final Font FONT_INPUT = new Font("Segoe UI", Font.PLAIN, 14);
-    public static final Font FONT_BUTTON = new Font("Segoe UI", Font.BOLD, 14);
-    public static final Font FONT_LINK = new Font("Segoe UI", Font.PLAIN, 13);
-    public static final Font FONT_HEADING = new Font("Segoe UI", Font.BOLD, 32);
-    public static final Font FONT_BODY = new Font("Segoe UI", Font.PLAIN, 16);
+    /**
+     * Text styles in the registry. Renderers look fonts, colours and metrics
+     * up by style instead of creating Font objects while painting.
+     */
+    public enum TextStyle {
+        TITLE, SUBTITLE, LABEL, INPUT, BUTTON, LINK, HEADING, BODY,
+        STAT_VALUE, BADGE, CAPTION, NOTIFICATION, NOTIFICATION_UNREAD
+    }
+
+    // Tried in order; Segoe UI is missing on most Linux hosts
+    private static final String[] PREFERRED_FAMILIES = {
+            "Segoe UI", "Noto Sans", "DejaVu Sans", "Liberation Sans"
+    };
+
+    // Family used for every style (override with -Dpalantier.font=<family>)
+    public static final String FONT_FAMILY = resolveFontFamily();
+
+    // Graphics used only to measure fonts for the registry (declared before the styles use it)
+    private static final Graphics2D MEASURE = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+
+    private static final EnumMap<TextStyle, Font> STYLE_FONTS = new EnumMap<>(TextStyle.class);
+    private static final EnumMap<TextStyle, Color> STYLE_COLORS = new EnumMap<>(TextStyle.class);
+    private static final EnumMap<TextStyle, FontMetrics> STYLE_METRICS = new EnumMap<>(TextStyle.class);
+
+    static {
+        defineStyle(TextStyle.TITLE, Font.BOLD, 28, TEXT_PRIMARY);
+        defineStyle(TextStyle.SUBTITLE, Font.PLAIN, 14, TEXT_SECONDARY);
+        defineStyle(TextStyle.LABEL, Font.BOLD, 13, TEXT_PRIMARY);
+        defineStyle(TextStyle.INPUT, Font.PLAIN, 14, TEXT_PRIMARY);
+        defineStyle(TextStyle.BUTTON, Font.BOLD, 14, Color.WHITE);
+        defineStyle(TextStyle.LINK, Font.PLAIN, 13, TEXT_MUTED);
+        defineStyle(TextStyle.HEADING, Font.BOLD, 32, TEXT_PRIMARY);
+        defineStyle(TextStyle.BODY, Font.PLAIN, 16, TEXT_MUTED);
+        defineStyle(TextStyle.STAT_VALUE, Font.BOLD, 24, TEXT_PRIMARY);
+        defineStyle(TextStyle.BADGE, Font.BOLD, 11, TEXT_PRIMARY);
+        defineStyle(TextStyle.CAPTION, Font.PLAIN, 11, TEXT_MUTED);
+        defineStyle(TextStyle.NOTIFICATION, Font.PLAIN, 12, TEXT_PRIMARY);
+        defineStyle(TextStyle.NOTIFICATION_UNREAD, Font.BOLD, 12, TEXT_PRIMARY);
+    }
+
+    public static final Font FONT_TITLE = font(TextStyle.TITLE);
+    public static final Font FONT_SUBTITLE = font(TextStyle.SUBTITLE);
+    public static final Font FONT_LABEL = font(TextStyle.LABEL);
+    public static final Font FONT_INPUT = font(TextStyle.INPUT);
+    public static final Font FONT_BUTTON = font(TextStyle.BUTTON);
+    public static final Font FONT_LINK = font(TextStyle.LINK);
+    public static final Font FONT_HEADING = font(TextStyle.HEADING);
+    public static final Font FONT_BODY = font(TextStyle.BODY);
+
+    public static Font font(TextStyle style) {
+        return STYLE_FONTS.get(style);
+    }
+
+    /**
+     * Default text colour for a style (components may still override it).
+     */
+    public static Color color(TextStyle style) {
+        return STYLE_COLORS.get(style);
+    }
+
+    /**
+     * Metrics for a style, measured once with antialiased text (as the
+     * custom painters draw it).
+     */
+    public static FontMetrics metrics(TextStyle style) {
+        return STYLE_METRICS.get(style);
+    }
+
+    private static void defineStyle(TextStyle style, int fontStyle, int size, Color color) {
+        Font font = new Font(FONT_FAMILY, fontStyle, size);
+        STYLE_FONTS.put(style, font);
+        STYLE_COLORS.put(style, color);
+        MEASURE.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        STYLE_METRICS.put(style, MEASURE.getFontMetrics(font));
+    }
+
+    private static String resolveFontFamily() {
+        Set<String> available = new HashSet<>(Arrays.asList(
+                GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames()));
+        String configured = System.getProperty("palantier.font");
+        if (configured != null && available.contains(configured)) {
+            return configured;
+        }
+        for (String family : PREFERRED_FAMILIES) {
+            if (available.contains(family)) {
+                return family;
+            }
+        }
+        return Font.SANS_SERIF;
+    }
+
+    // ══════════════════════════════════════════════════════════════════════
+    // CACHED PAINTING
+    // ══════════════════════════════════════════════════════════════════════
+
+    private static final BasicStroke BORDER_STROKE = new BasicStroke(1.5f);
+
+    private static final RenderCache.Painter CARD_PANEL_PAINTER = (g2, width, height) -> {
+        g2.setColor(BG_CARD);
+        g2.fill(new RoundRectangle2D.Float(0, 0, width, height, 24, 24));
+        g2.setColor(BORDER_DEFAULT);
+        g2.setStroke(new BasicStroke(1f));
+        g2.draw(new RoundRectangle2D.Float(0, 0, width - 1, height - 1, 24, 24));
+    };
+
+    private static final RenderCache.Painter GRADIENT_BACKGROUND_PAINTER = (g2, width, height) -> {
+        // Subtle radial-like gradient from dark center to darker edges
+        g2.setPaint(new GradientPaint(0, 0, new Color(20, 20, 40), width, height, BG_DARK));
+        g2.fillRect(0, 0, width, height);
+
+        // Add a subtle accent glow in the top-right area
+        g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.08f));
+        g2.setColor(ACCENT_PRIMARY);
+        g2.fillOval(width / 2, -100, 500, 500);
+
+        // Add a second glow bottom-left
+        g2.setColor(ACCENT_GRADIENT);
+        g2.fillOval(-200, height - 200, 400, 400);
+    };
+
+    /**
+     * Fills a rounded rectangle of the given size from the render cache.
+     */
+    static void paintRoundedFill(Graphics g, Color color, int arc, int width, int height) {
+        RenderCache.paintNinePatch(g, "fill:" + color.getRGB() + ":" + arc, 0, 0, width, height, arc / 2 + 1,
+                (g2, w, h) -> {
+                    g2.setColor(color);
+                    g2.fill(new RoundRectangle2D.Float(0, 0, w, h, arc, arc));
+                });
+    }
+
+    /**
+     * Draws the 1.5px rounded field/button border from the render cache.
+     */
+    static void paintRoundedBorder(Graphics g, Color color, int arc, int width, int height) {
+        RenderCache.paintNinePatch(g, "border:" + color.getRGB() + ":" + arc, 0, 0, width, height, arc / 2 + 2,
+                (g2, w, h) -> {
+                    g2.setColor(color);
+                    g2.setStroke(BORDER_STROKE);
+                    g2.draw(new RoundRectangle2D.Float(1, 1, w - 2, h - 2, arc, arc));
+                });
+    }
 
     // ══════════════════════════════════════════════════════════════════════
     // CUSTOM COMPONENTS
@@ -72,22 +215,13 @@ public class UITheme {
         JTextField field = new JTextField(columns) {
             @Override
             protected void paintComponent(Graphics g) {
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2.setColor(getBackground());
-                g2.fill(new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 12, 12));
+                paintRoundedFill(g, getBackground(), 12, getWidth(), getHeight());
                 super.paintComponent(g);
-                g2.dispose();
             }
 
             @Override
             protected void paintBorder(Graphics g) {
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2.setColor(hasFocus() ? BORDER_FOCUS : BORDER_DEFAULT);
-                g2.setStroke(new BasicStroke(1.5f));
-                g2.draw(new RoundRectangle2D.Float(1, 1, getWidth() - 2, getHeight() - 2, 12, 12));
-                g2.dispose();
+                paintRoundedBorder(g, hasFocus() ? BORDER_FOCUS : BORDER_DEFAULT, 12, getWidth(), getHeight());
             }
         };
         styleTextField(field);
@@ -101,22 +235,13 @@ public class UITheme {
         JPasswordField field = new JPasswordField(columns) {
             @Override
             protected void paintComponent(Graphics g) {
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2.setColor(getBackground());
-                g2.fill(new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 12, 12));
+                paintRoundedFill(g, getBackground(), 12, getWidth(), getHeight());
                 super.paintComponent(g);
-                g2.dispose();
             }
 
             @Override
             protected void paintBorder(Graphics g) {
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2.setColor(hasFocus() ? BORDER_FOCUS : BORDER_DEFAULT);
-                g2.setStroke(new BasicStroke(1.5f));
-                g2.draw(new RoundRectangle2D.Float(1, 1, getWidth() - 2, getHeight() - 2, 12, 12));
-                g2.dispose();
+                paintRoundedBorder(g, hasFocus() ? BORDER_FOCUS : BORDER_DEFAULT, 12, getWidth(), getHeight());
             }
         };
         styleTextField(field);
@@ -176,16 +301,17 @@ public class UITheme {
 
             @Override
             protected void paintComponent(Graphics g) {
+                // Gradient background (depends on size, so cached per size)
+                Color start = hovering ? ACCENT_HOVER : ACCENT_PRIMARY;
+                RenderCache.paintSized(g, hovering ? "primary-hover" : "primary", 0, 0, getWidth(), getHeight(),
+                        (g2, width, height) -> {
+                            g2.setPaint(new GradientPaint(0, 0, start, width, height, ACCENT_GRADIENT));
+                            g2.fill(new RoundRectangle2D.Float(0, 0, width, height, 14, 14));
+                        });
+
                 Graphics2D g2 = (Graphics2D) g.create();
                 g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-                // Gradient background
-                Color start = hovering ? ACCENT_HOVER : ACCENT_PRIMARY;
-                Color end = ACCENT_GRADIENT;
-                GradientPaint gp = new GradientPaint(0, 0, start, getWidth(), getHeight(), end);
-                g2.setPaint(gp);
-                g2.fill(new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 14, 14));
-
                 // Button text
                 g2.setColor(Color.WHITE);
                 g2.setFont(getFont());
@@ -251,19 +377,7 @@ public class UITheme {
         JPanel panel = new JPanel() {
             @Override
             protected void paintComponent(Graphics g) {
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-                // Card background
-                g2.setColor(BG_CARD);
-                g2.fill(new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 24, 24));
-
-                // Subtle border
-                g2.setColor(BORDER_DEFAULT);
-                g2.setStroke(new BasicStroke(1f));
-                g2.draw(new RoundRectangle2D.Float(0, 0, getWidth() - 1, getHeight() - 1, 24, 24));
-
-                g2.dispose();
+                RenderCache.paintNinePatch(g, "card-panel", 0, 0, getWidth(), getHeight(), 13, CARD_PANEL_PAINTER);
             }
         };
         panel.setOpaque(false);
@@ -277,26 +391,9 @@ public class UITheme {
         JPanel panel = new JPanel() {
             @Override
             protected void paintComponent(Graphics g) {
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-
-                // Subtle radial-like gradient from dark center to darker edges
-                GradientPaint gp = new GradientPaint(
-                        0, 0, new Color(20, 20, 40),
-                        getWidth(), getHeight(), BG_DARK);
-                g2.setPaint(gp);
-                g2.fillRect(0, 0, getWidth(), getHeight());
-
-                // Add a subtle accent glow in the top-right area
-                g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.08f));
-                g2.setColor(ACCENT_PRIMARY);
-                g2.fillOval(getWidth() / 2, -100, 500, 500);
-
-                // Add a second glow bottom-left
-                g2.setColor(ACCENT_GRADIENT);
-                g2.fillOval(-200, getHeight() - 200, 400, 400);
-
-                g2.dispose();
+                // Re-rendered only when the window is resized
+                RenderCache.paintSized(g, "window-background", 0, 0, getWidth(), getHeight(),
+                        GRADIENT_BACKGROUND_PAINTER);
             }
         };
         panel.setOpaque(true);
@@ -529,22 +626,13 @@ public class UITheme {
 
             @Override
             protected void paintComponent(Graphics g) {
+                // Background + border
+                paintRoundedFill(g, hovering ? ACCENT_TINT : BG_INPUT, 12, getWidth(), getHeight());
+                paintRoundedBorder(g, hovering ? ACCENT_PRIMARY : BORDER_DEFAULT, 12, getWidth(), getHeight());
+
                 Graphics2D g2 = (Graphics2D) g.create();
                 g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-                if (hovering) {
-                    g2.setColor(new Color(ACCENT_PRIMARY.getRed(), ACCENT_PRIMARY.getGreen(),
-                            ACCENT_PRIMARY.getBlue(), 30));
-                } else {
-                    g2.setColor(BG_INPUT);
-                }
-                g2.fill(new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 12, 12));
-
-                // Border
-                g2.setColor(hovering ? ACCENT_PRIMARY : BORDER_DEFAULT);
-                g2.setStroke(new BasicStroke(1.5f));
-                g2.draw(new RoundRectangle2D.Float(1, 1, getWidth() - 2, getHeight() - 2, 12, 12));
-
                 // Text
                 g2.setColor(hovering ? ACCENT_HOVER : TEXT_SECONDARY);
                 g2.setFont(getFont());